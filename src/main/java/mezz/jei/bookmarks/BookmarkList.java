@@ -1,23 +1,38 @@
 package mezz.jei.bookmarks;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Collections;
 import java.util.List;
 
+import com.google.common.collect.Lists;
 import mezz.jei.api.ingredients.IIngredientHelper;
 import mezz.jei.api.ingredients.subtypes.UidContext;
+import mezz.jei.collect.Table;
 import mezz.jei.config.BookmarkConfig;
 import mezz.jei.gui.ingredients.IIngredientListElement;
 import mezz.jei.gui.overlay.IIngredientGridSource;
 import mezz.jei.ingredients.IngredientListElementFactory;
 import mezz.jei.ingredients.IngredientManager;
+import org.apache.commons.lang3.tuple.Pair;
 
 public class BookmarkList implements IIngredientGridSource {
-	private final List<Object> list = new LinkedList<>();
-	private final List<IIngredientListElement<?>> ingredientListElements = new LinkedList<>();
+	/**
+	 * Bookmarks in the order they were added, oldest first.
+	 * Removed bookmarks are left in place as null until there are enough of them to be worth compacting.
+	 */
+	private final List<Bookmark> bookmarks = new ArrayList<>();
+	/**
+	 * We cannot assume that ingredients have a working equals() implementation. Even ItemStack doesn't have one...
+	 * so bookmarks are indexed by ingredient class and uid instead.
+	 */
+	private final Table<Class<?>, String, Bookmark> bookmarksByUid = Table.hashBasedTable();
 	private final IngredientManager ingredientManager;
 	private final BookmarkConfig bookmarkConfig;
 	private final List<IIngredientGridSource.Listener> listeners = new ArrayList<>();
+	private int removedCount;
+	@Nullable
+	private List<IIngredientListElement<?>> ingredientListElements;
 
 	public BookmarkList(IngredientManager ingredientManager, BookmarkConfig bookmarkConfig) {
 		this.ingredientManager = ingredientManager;
@@ -26,11 +41,13 @@ public class BookmarkList implements IIngredientGridSource {
 
 	public <T> boolean add(T ingredient) {
 		IIngredientHelper<T> ingredientHelper = ingredientManager.getIngredientHelper(ingredient);
-		Object normalized = ingredientHelper.normalizeIngredient(ingredient);
+		T normalized = ingredientHelper.normalizeIngredient(ingredient);
 		if (!contains(normalized)) {
-			if (addToLists(normalized, true)) {
+			String line = bookmarkConfig.getBookmarkLine(ingredientManager, normalized);
+			if (addToLists(normalized, line)) {
 				notifyListenersOfChange();
-				bookmarkConfig.saveBookmarks(ingredientManager, ingredientListElements);
+				bookmarkConfig.onBookmarkAdded(line);
+				compactIfNeeded();
 				return true;
 			}
 		}
@@ -38,61 +55,125 @@ public class BookmarkList implements IIngredientGridSource {
 	}
 
 	private boolean contains(Object ingredient) {
-		// We cannot assume that ingredients have a working equals() implementation. Even ItemStack doesn't have one...
+		return getBookmark(ingredient) != null;
+	}
+
+	@Nullable
+	private Bookmark getBookmark(Object ingredient) {
 		IIngredientHelper<Object> ingredientHelper = ingredientManager.getIngredientHelper(ingredient);
-		for (Object existing : list) {
-			if (ingredient == existing) {
-				return true;
+		String uid = ingredientHelper.getUniqueId(ingredient, UidContext.Ingredient);
+		return bookmarksByUid.get(ingredient.getClass(), uid);
+	}
+
+	public boolean remove(Object ingredient) {
+		Bookmark bookmark = getBookmark(ingredient);
+		if (bookmark == null) {
+			return false;
+		}
+		bookmarksByUid.getRow(ingredient.getClass()).remove(bookmark.uid);
+		bookmarks.set(bookmark.index, null);
+		removedCount++;
+		if (removedCount > bookmarks.size() / 2) {
+			compactRemoved();
+		}
+		ingredientListElements = null;
+
+		notifyListenersOfChange();
+		bookmarkConfig.onBookmarkRemoved(bookmark.line);
+		compactIfNeeded();
+		return true;
+	}
+
+	/**
+	 * Adds bookmarks that were loaded from the config, without saving them.
+	 * Bookmarks added while they were loading stay in front of them.
+	 *
+	 * @param loaded the loaded ingredients and their bookmark lines, in the order they are shown.
+	 */
+	public void addLoaded(List<Pair<Object, String>> loaded) {
+		List<Bookmark> addedWhileLoading = new ArrayList<>(bookmarks);
+		bookmarks.clear();
+		removedCount = 0;
+		for (Pair<Object, String> pair : Lists.reverse(loaded)) {
+			Object ingredient = pair.getLeft();
+			if (!contains(ingredient)) {
+				addToLists(ingredient, pair.getRight());
 			}
-			if (existing != null && existing.getClass() == ingredient.getClass()) {
-				if (equalUids(ingredientHelper, existing, ingredient)) {
-					return true;
-				}
+		}
+		for (Bookmark bookmark : addedWhileLoading) {
+			if (bookmark != null) {
+				bookmark.index = bookmarks.size();
+				bookmarks.add(bookmark);
 			}
 		}
-		return false;
+		ingredientListElements = null;
+		notifyListenersOfChange();
 	}
 
-	private static boolean equalUids(IIngredientHelper<Object> ingredientHelper, Object a, Object b) {
-		String uidA = ingredientHelper.getUniqueId(a, UidContext.Ingredient);
-		String uidB = ingredientHelper.getUniqueId(b, UidContext.Ingredient);
-		return uidA.equals(uidB);
+	/**
+	 * Adds a bookmark in front of the existing ones, without saving it.
+	 */
+	private <T> boolean addToLists(T ingredient, String line) {
+		IIngredientHelper<T> ingredientHelper = ingredientManager.getIngredientHelper(ingredient);
+		String uid = ingredientHelper.getUniqueId(ingredient, UidContext.Ingredient);
+		IIngredientListElement<T> element = IngredientListElementFactory.createUnorderedElement(ingredient);
+		Bookmark bookmark = new Bookmark(element, uid, line, bookmarks.size());
+		bookmarks.add(bookmark);
+		bookmarksByUid.put(ingredient.getClass(), uid, bookmark);
+		ingredientListElements = null;
+		return true;
 	}
 
-	public boolean remove(Object ingredient) {
-		int index = 0;
-		for (Object existing : list) {
-			if (ingredient == existing) {
-				list.remove(index);
-				ingredientListElements.remove(index);
-				notifyListenersOfChange();
-				bookmarkConfig.saveBookmarks(ingredientManager, ingredientListElements);
-				return true;
+	private void compactRemoved() {
+		List<Bookmark> existing = new ArrayList<>(bookmarks);
+		bookmarks.clear();
+		for (Bookmark bookmark : existing) {
+			if (bookmark != null) {
+				bookmark.index = bookmarks.size();
+				bookmarks.add(bookmark);
 			}
-			index++;
 		}
-		return false;
+		removedCount = 0;
 	}
 
-	public <T> boolean addToLists(T ingredient, boolean addToFront) {
-		IIngredientListElement<T> element = IngredientListElementFactory.createUnorderedElement(ingredient);
-		if (addToFront) {
-			list.add(0, ingredient);
-			ingredientListElements.add(0, element);
-		} else {
-			list.add(ingredient);
-			ingredientListElements.add(element);
+	private void compactIfNeeded() {
+		if (bookmarkConfig.isJournalFull()) {
+			bookmarkConfig.saveBookmarks(getBookmarkLines());
 		}
-		return true;
+	}
+
+	/**
+	 * @return the config file lines for all bookmarks, in the order they are shown.
+	 */
+	public List<String> getBookmarkLines() {
+		List<String> lines = new ArrayList<>(bookmarks.size() - removedCount);
+		for (int i = bookmarks.size() - 1; i >= 0; i--) {
+			Bookmark bookmark = bookmarks.get(i);
+			if (bookmark != null) {
+				lines.add(bookmark.line);
+			}
+		}
+		return lines;
 	}
 
 	@Override
 	public List<IIngredientListElement<?>> getIngredientList(String filterText) {
+		if (ingredientListElements == null) {
+			List<IIngredientListElement<?>> elements = new ArrayList<>(bookmarks.size() - removedCount);
+			// newest bookmarks are shown first
+			for (int i = bookmarks.size() - 1; i >= 0; i--) {
+				Bookmark bookmark = bookmarks.get(i);
+				if (bookmark != null) {
+					elements.add(bookmark.element);
+				}
+			}
+			ingredientListElements = Collections.unmodifiableList(elements);
+		}
 		return ingredientListElements;
 	}
 
 	public boolean isEmpty() {
-		return ingredientListElements.isEmpty();
+		return bookmarks.size() == removedCount;
 	}
 
 	@Override
@@ -105,4 +186,18 @@ public class BookmarkList implements IIngredientGridSource {
 			listener.onChange();
 		}
 	}
+
+	private static class Bookmark {
+		private final IIngredientListElement<?> element;
+		private final String uid;
+		private final String line;
+		private int index;
+
+		public Bookmark(IIngredientListElement<?> element, String uid, String line, int index) {
+			this.element = element;
+			this.uid = uid;
+			this.line = line;
+			this.index = index;
+		}
+	}
 }
@@ -1,20 +1,34 @@
 package mezz.jei.config;
 
 import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
 
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import mezz.jei.api.ingredients.subtypes.UidContext;
 import mezz.jei.vote.GoVoteIngredient;
 import mezz.jei.vote.GoVotePlugin;
+import net.minecraft.client.Minecraft;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.nbt.CompressedStreamTools;
 import net.minecraft.nbt.JsonToNBT;
 
 import mezz.jei.api.constants.VanillaTypes;
@@ -22,98 +36,352 @@ import mezz.jei.api.ingredients.IIngredientHelper;
 import mezz.jei.api.ingredients.IIngredientType;
 import mezz.jei.api.runtime.IIngredientManager;
 import mezz.jei.bookmarks.BookmarkList;
-import mezz.jei.gui.ingredients.IIngredientListElement;
 import mezz.jei.ingredients.IngredientManager;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 public class BookmarkConfig {
 	private static final Logger LOGGER = LogManager.getLogger();
+	/**
+	 * Written as the first line of the bookmarks file.
+	 * Files without it were written by older versions, which only used {@link #MARKER_OTHER} and {@link #MARKER_STACK}.
+	 */
+	private static final String VERSION_HEADER = "#version 2";
+	private static final String COMMENT = "#";
+	/**
+	 * Legacy: an ingredient uid, without its type.
+	 */
 	private static final String MARKER_OTHER = "O:";
+	/**
+	 * Legacy: an ItemStack as SNBT.
+	 */
 	private static final String MARKER_STACK = "T:";
+	/**
+	 * An ingredient type id and uid, separated by a space.
+	 */
+	private static final String MARKER_INGREDIENT = "I:";
+	/**
+	 * An ItemStack as Base64 encoded binary NBT, which is much faster to read than SNBT.
+	 */
+	private static final String MARKER_BINARY_STACK = "B:";
+	private static final String MARKER_ADDED = "+";
+	private static final String MARKER_REMOVED = "-";
+	/**
+	 * Once the journal has this many entries, it is compacted into a new bookmarks file.
+	 */
+	private static final int MAX_JOURNAL_ENTRIES = 256;
+	/**
+	 * The journal can't be compacted while the bookmarks are not loaded, so it stops growing at this many entries.
+	 * Only reached when the bookmark files could not be read.
+	 */
+	private static final int MAX_UNLOADED_JOURNAL_ENTRIES = 4096;
+
 	private final File bookmarkFile;
+	private final File journalFile;
+	/**
+	 * All file access happens on its IO thread, in the order it was requested.
+	 */
+	private final ConfigFileWriter configFileWriter;
+	private int journalEntries;
+	private boolean loaded;
+	/**
+	 * Bookmark lines that could not be loaded, like ones for items from a mod that was removed.
+	 */
+	private List<String> unloadedLines = Collections.emptyList();
 
 	public BookmarkConfig(File jeiConfigurationDir) {
 		this.bookmarkFile = new File(jeiConfigurationDir, "bookmarks.ini");
+		this.journalFile = new File(jeiConfigurationDir, "bookmarks.journal");
+		this.configFileWriter = ConfigFileWriter.getInstance();
 	}
 
-	public void saveBookmarks(IIngredientManager ingredientManager, List<IIngredientListElement<?>> ingredientListElements) {
-		List<String> strings = new ArrayList<>();
-		for (IIngredientListElement<?> element : ingredientListElements) {
-			Object object = element.getIngredient();
-			if (object instanceof ItemStack) {
-				strings.add(MARKER_STACK + ((ItemStack) object).write(new CompoundNBT()).toString());
-			} else {
-				strings.add(MARKER_OTHER + getUid(ingredientManager, element));
+	public <T> String getBookmarkLine(IIngredientManager ingredientManager, T ingredient) {
+		if (ingredient instanceof ItemStack) {
+			CompoundNBT itemStackAsNbt = ((ItemStack) ingredient).write(new CompoundNBT());
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (DataOutputStream output = new DataOutputStream(bytes)) {
+				CompressedStreamTools.write(itemStackAsNbt, output);
+			} catch (IOException e) {
+				// writing to memory does not fail, but fall back to the legacy format just in case
+				LOGGER.error("Failed to write bookmarked ItemStack as binary NBT: {}", itemStackAsNbt, e);
+				return MARKER_STACK + itemStackAsNbt;
 			}
-		}
-		File file = bookmarkFile;
-		try (FileWriter writer = new FileWriter(file)) {
-			IOUtils.writeLines(strings, "\n", writer);
-		} catch (IOException e) {
-			LOGGER.error("Failed to save bookmarks list to file {}", file, e);
+			return MARKER_BINARY_STACK + Base64.getEncoder().encodeToString(bytes.toByteArray());
+		} else {
+			IIngredientHelper<T> ingredientHelper = ingredientManager.getIngredientHelper(ingredient);
+			IIngredientType<T> ingredientType = ingredientManager.getIngredientType(ingredient);
+			String uid = ingredientHelper.getUniqueId(ingredient, UidContext.Ingredient);
+			return MARKER_INGREDIENT + getTypeId(ingredientType) + ' ' + uid;
 		}
 	}
 
-	public void loadBookmarks(IngredientManager ingredientManager, BookmarkList bookmarkList) {
-		File file = bookmarkFile;
-		if (!file.exists()) {
-			// add a "vote" ingredient if this is the very first time bookmarks are being loaded
-			// and if the ingredient is active
-			GoVoteIngredient goVoteIngredient = GoVotePlugin.getVoteIngredient();
-			if (goVoteIngredient != null) {
-				bookmarkList.add(goVoteIngredient);
+	private static String getTypeId(IIngredientType<?> ingredientType) {
+		return ingredientType.getIngredientClass().getName();
+	}
+
+	public void onBookmarkAdded(String line) {
+		appendToJournal(MARKER_ADDED + line);
+	}
+
+	public void onBookmarkRemoved(String line) {
+		appendToJournal(MARKER_REMOVED + line);
+	}
+
+	/**
+	 * The journal is not compacted until the bookmarks are loaded, compacting before then would lose them.
+	 * Lines that fail to load don't stop the others from loading, so compacting can only be stopped by
+	 * the bookmark files not being readable at all. In that case the journal is capped at {@link #MAX_UNLOADED_JOURNAL_ENTRIES}.
+	 */
+	public boolean isJournalFull() {
+		return loaded && journalEntries >= MAX_JOURNAL_ENTRIES;
+	}
+
+	private void appendToJournal(String journalLine) {
+		if (!loaded && journalEntries >= MAX_UNLOADED_JOURNAL_ENTRIES) {
+			if (journalEntries == MAX_UNLOADED_JOURNAL_ENTRIES) {
+				LOGGER.error("Bookmarks were not loaded and the journal {} is full, further bookmark changes will not be saved.", journalFile);
+				journalEntries++;
 			}
 			return;
 		}
-		List<String> ingredientJsonStrings;
-		try (FileReader reader = new FileReader(file)) {
-			ingredientJsonStrings = IOUtils.readLines(reader);
-		} catch (IOException e) {
-			LOGGER.error("Failed to load bookmarks from file {}", file, e);
-			return;
+		journalEntries++;
+		configFileWriter.execute(() -> {
+			try (FileWriter writer = new FileWriter(journalFile, true)) {
+				writer.write(journalLine);
+				writer.write('\n');
+			} catch (IOException e) {
+				LOGGER.error("Failed to save bookmark change to file {}", journalFile, e);
+			}
+		});
+	}
+
+	/**
+	 * Replaces the bookmarks file with the given lines and clears the journal, in the background.
+	 * Lines that failed to load are written after them, so they come back if the ingredients exist again later.
+	 */
+	public void saveBookmarks(List<String> lines) {
+		journalEntries = 0;
+		List<String> unloadedLines = this.unloadedLines;
+		// not combined with other writes, the journal has to be cleared in order with the journal entries around it
+		configFileWriter.execute(() -> {
+			try {
+				ConfigFileWriter.writeAtomically(bookmarkFile, writer -> {
+					writer.write(VERSION_HEADER);
+					writer.write('\n');
+					IOUtils.writeLines(lines, "\n", writer);
+					IOUtils.writeLines(unloadedLines, "\n", writer);
+				});
+				Files.deleteIfExists(journalFile.toPath());
+			} catch (IOException e) {
+				LOGGER.error("Failed to save bookmarks list to file {}", bookmarkFile, e);
+			}
+		});
+	}
+
+	/**
+	 * Reads the bookmarks file and applies the changes recorded in the journal.
+	 *
+	 * @return the stored bookmarks, or null if there is no bookmarks file yet.
+	 */
+	@Nullable
+	private StoredBookmarks readStoredBookmarks() throws IOException {
+		if (!bookmarkFile.exists() && !journalFile.exists()) {
+			return null;
+		}
+		// stored last shown first, so that added bookmarks can be appended
+		List<String> lines = new ArrayList<>();
+		if (bookmarkFile.exists()) {
+			try (FileReader reader = new FileReader(bookmarkFile)) {
+				for (String line : IOUtils.readLines(reader)) {
+					if (!line.isEmpty() && !line.startsWith(COMMENT)) {
+						lines.add(line);
+					}
+				}
+			}
+			Collections.reverse(lines);
+		}
+		boolean hasJournalEntries = false;
+		if (journalFile.exists()) {
+			List<String> journalLines;
+			try (FileReader reader = new FileReader(journalFile)) {
+				journalLines = IOUtils.readLines(reader);
+			}
+			for (String journalLine : journalLines) {
+				if (journalLine.startsWith(MARKER_ADDED)) {
+					lines.add(journalLine.substring(MARKER_ADDED.length()));
+				} else if (journalLine.startsWith(MARKER_REMOVED)) {
+					lines.remove(journalLine.substring(MARKER_REMOVED.length()));
+				} else if (!journalLine.isEmpty()) {
+					LOGGER.error("Failed to load unknown bookmark journal entry:\n{}", journalLine);
+					continue;
+				}
+				hasJournalEntries = true;
+			}
 		}
+		Collections.reverse(lines);
+		return new StoredBookmarks(lines, hasJournalEntries);
+	}
 
+	/**
+	 * Loads the bookmarks in the background and adds them to the bookmark list on the main thread once they are ready.
+	 * Files are read on the config IO thread, so that they are read before any changes made in the meantime are written.
+	 * Only the stored NBT is decoded in the background, creating the ingredients can run mod code and happens on the main thread.
+	 */
+	public void loadBookmarks(IngredientManager ingredientManager, BookmarkList bookmarkList) {
+		long start = System.nanoTime();
+		CompletableFuture.supplyAsync(() -> {
+			try {
+				return readStoredBookmarks();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}, configFileWriter::execute)
+			.thenApplyAsync(stored -> {
+				if (stored != null) {
+					stored.decodeItemStacks();
+				}
+				return stored;
+			})
+			.whenComplete((stored, throwable) -> Minecraft.getInstance().execute(() -> {
+				if (throwable != null) {
+					LOGGER.error("Failed to load bookmarks from file {}", bookmarkFile, throwable);
+					return;
+				}
+				loaded = true;
+				if (stored == null) {
+					// add a "vote" ingredient if this is the very first time bookmarks are being loaded
+					// and if the ingredient is active
+					GoVoteIngredient goVoteIngredient = GoVotePlugin.getVoteIngredient();
+					if (goVoteIngredient != null) {
+						bookmarkList.add(goVoteIngredient);
+					}
+				} else {
+					List<Pair<Object, String>> loadedBookmarks = parseBookmarkLines(ingredientManager, stored);
+					bookmarkList.addLoaded(loadedBookmarks);
+					if (stored.needsCompacting || journalEntries > 0) {
+						// compact the journal into the bookmarks file, and upgrade it to the current format
+						saveBookmarks(bookmarkList.getBookmarkLines());
+					}
+					LOGGER.info("Loaded {} bookmarks in {} ms", loadedBookmarks.size(), (System.nanoTime() - start) / 1_000_000);
+				}
+			}));
+	}
+
+	/**
+	 * Creates the bookmarked ingredients.
+	 * Lines that fail to load are kept in {@link #unloadedLines}, so that saving does not lose them.
+	 *
+	 * @return the normalized ingredients and their bookmark lines in the current format, in the order they are shown.
+	 */
+	private List<Pair<Object, String>> parseBookmarkLines(IngredientManager ingredientManager, StoredBookmarks stored) {
+		Map<String, IIngredientType<?>> ingredientTypesById = new HashMap<>();
+		for (IIngredientType<?> ingredientType : ingredientManager.getRegisteredIngredientTypes()) {
+			ingredientTypesById.put(getTypeId(ingredientType), ingredientType);
+		}
 		Collection<IIngredientType<?>> otherIngredientTypes = new ArrayList<>(ingredientManager.getRegisteredIngredientTypes());
 		otherIngredientTypes.remove(VanillaTypes.ITEM);
 
-		IIngredientHelper<ItemStack> itemStackHelper = ingredientManager.getIngredientHelper(VanillaTypes.ITEM);
-
-		for (String ingredientJsonString : ingredientJsonStrings) {
-			if (ingredientJsonString.startsWith(MARKER_STACK)) {
-				String itemStackAsJson = ingredientJsonString.substring(MARKER_STACK.length());
-				try {
-					CompoundNBT itemStackAsNbt = JsonToNBT.getTagFromJson(itemStackAsJson);
-					ItemStack itemStack = ItemStack.read(itemStackAsNbt);
-					if (!itemStack.isEmpty()) {
-						ItemStack normalized = itemStackHelper.normalizeIngredient(itemStack);
-						bookmarkList.addToLists(normalized, false);
-					} else {
-						LOGGER.warn("Failed to load bookmarked ItemStack from json string, the item no longer exists:\n{}", itemStackAsJson);
-					}
-				} catch (CommandSyntaxException e) {
-					LOGGER.error("Failed to load bookmarked ItemStack from json string:\n{}", itemStackAsJson, e);
-				}
-			} else if (ingredientJsonString.startsWith(MARKER_OTHER)) {
-				String uid = ingredientJsonString.substring(MARKER_OTHER.length());
-				Object ingredient = getUnknownIngredientByUid(ingredientManager, otherIngredientTypes, uid);
-				if (ingredient != null) {
-					IIngredientHelper<Object> ingredientHelper = ingredientManager.getIngredientHelper(ingredient);
-					Object normalized = ingredientHelper.normalizeIngredient(ingredient);
-					bookmarkList.addToLists(normalized, false);
+		List<Pair<Object, String>> loadedBookmarks = new ArrayList<>(stored.lines.size());
+		List<String> unloadedLines = new ArrayList<>();
+		for (int i = 0; i < stored.lines.size(); i++) {
+			String line = stored.lines.get(i);
+			Object ingredient;
+			try {
+				ingredient = parseBookmarkLine(ingredientManager, ingredientTypesById, otherIngredientTypes, line, stored.itemStacksAsNbt[i]);
+			} catch (RuntimeException | LinkageError e) {
+				LOGGER.error("Failed to load bookmarked ingredient:\n{}", line, e);
+				ingredient = null;
+			}
+			if (ingredient == null) {
+				unloadedLines.add(line);
+				continue;
+			}
+			IIngredientHelper<Object> ingredientHelper = ingredientManager.getIngredientHelper(ingredient);
+			Object normalized = ingredientHelper.normalizeIngredient(ingredient);
+			String bookmarkLine = getBookmarkLine(ingredientManager, normalized);
+			if (!bookmarkLine.equals(line)) {
+				stored.needsCompacting = true;
+			}
+			loadedBookmarks.add(Pair.of(normalized, bookmarkLine));
+		}
+		this.unloadedLines = Collections.unmodifiableList(unloadedLines);
+		return loadedBookmarks;
+	}
+
+	@Nullable
+	private Object parseBookmarkLine(
+		IngredientManager ingredientManager,
+		Map<String, IIngredientType<?>> ingredientTypesById,
+		Collection<IIngredientType<?>> otherIngredientTypes,
+		String line,
+		@Nullable CompoundNBT itemStackAsNbt
+	) {
+		if (line.startsWith(MARKER_BINARY_STACK) || line.startsWith(MARKER_STACK)) {
+			// decoded in the background, null if that failed
+			return itemStackAsNbt == null ? null : readItemStack(itemStackAsNbt);
+		} else if (line.startsWith(MARKER_INGREDIENT)) {
+			int separator = line.indexOf(' ', MARKER_INGREDIENT.length());
+			if (separator < 0) {
+				LOGGER.error("Failed to load bookmarked ingredient without a type:\n{}", line);
+				return null;
+			}
+			String typeId = line.substring(MARKER_INGREDIENT.length(), separator);
+			String uid = line.substring(separator + 1);
+			IIngredientType<?> ingredientType = ingredientTypesById.get(typeId);
+			if (ingredientType == null) {
+				LOGGER.warn("Failed to load bookmarked ingredient, its type {} no longer exists:\n{}", typeId, uid);
+				return null;
+			}
+			return ingredientManager.getIngredientByUid(ingredientType, uid);
+		} else if (line.startsWith(MARKER_OTHER)) {
+			String uid = line.substring(MARKER_OTHER.length());
+			return getUnknownIngredientByUid(ingredientManager, otherIngredientTypes, uid);
+		} else {
+			LOGGER.error("Failed to load unknown bookmarked ingredient:\n{}", line);
+			return null;
+		}
+	}
+
+	/**
+	 * Decodes the NBT of a bookmarked ItemStack. This does not touch any game state, so it is safe to do in the background.
+	 *
+	 * @return the decoded NBT, or null if the line does not hold an ItemStack or it could not be decoded.
+	 */
+	@Nullable
+	private static CompoundNBT decodeItemStack(String line) {
+		if (line.startsWith(MARKER_BINARY_STACK)) {
+			String itemStackAsBase64 = line.substring(MARKER_BINARY_STACK.length());
+			try {
+				byte[] bytes = Base64.getDecoder().decode(itemStackAsBase64);
+				try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes))) {
+					return CompressedStreamTools.read(input);
 				}
-			} else {
-				LOGGER.error("Failed to load unknown bookmarked ingredient:\n{}", ingredientJsonString);
+			} catch (RuntimeException | IOException e) {
+				LOGGER.error("Failed to load bookmarked ItemStack from binary NBT:\n{}", itemStackAsBase64, e);
+				return null;
+			}
+		} else if (line.startsWith(MARKER_STACK)) {
+			String itemStackAsJson = line.substring(MARKER_STACK.length());
+			try {
+				return JsonToNBT.getTagFromJson(itemStackAsJson);
+			} catch (CommandSyntaxException | RuntimeException e) {
+				LOGGER.error("Failed to load bookmarked ItemStack from json string:\n{}", itemStackAsJson, e);
+				return null;
 			}
 		}
-		bookmarkList.notifyListenersOfChange();
+		return null;
 	}
 
-	private <T> String getUid(IIngredientManager ingredientManager, IIngredientListElement<T> element) {
-		T ingredient = element.getIngredient();
-		IIngredientHelper<T> ingredientHelper = ingredientManager.getIngredientHelper(ingredient);
-		return ingredientHelper.getUniqueId(ingredient, UidContext.Ingredient);
+	@Nullable
+	private static ItemStack readItemStack(CompoundNBT itemStackAsNbt) {
+		ItemStack itemStack = ItemStack.read(itemStackAsNbt);
+		if (itemStack.isEmpty()) {
+			LOGGER.warn("Failed to load bookmarked ItemStack, the item no longer exists:\n{}", itemStackAsNbt);
+			return null;
+		}
+		return itemStack;
 	}
 
 	@Nullable
@@ -126,4 +394,28 @@ public class BookmarkConfig {
 		}
 		return null;
 	}
+
+	private static class StoredBookmarks {
+		/**
+		 * The bookmark lines in the order they are shown.
+		 */
+		private final List<String> lines;
+		/**
+		 * The decoded NBT of each ItemStack line, null for other lines.
+		 */
+		private final CompoundNBT[] itemStacksAsNbt;
+		private boolean needsCompacting;
+
+		public StoredBookmarks(List<String> lines, boolean needsCompacting) {
+			this.lines = lines;
+			this.itemStacksAsNbt = new CompoundNBT[lines.size()];
+			this.needsCompacting = needsCompacting;
+		}
+
+		public void decodeItemStacks() {
+			IntStream.range(0, lines.size())
+				.parallel()
+				.forEach(i -> itemStacksAsNbt[i] = decodeItemStack(lines.get(i)));
+		}
+	}
 }
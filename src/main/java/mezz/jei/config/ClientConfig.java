@@ -45,6 +45,8 @@ public final class ClientConfig implements IJEIConfig, IClientConfig {
 	private final ForgeConfigSpec.EnumValue<GiveMode> giveMode;
 	private final ForgeConfigSpec.IntValue maxColumns;
 	private final ForgeConfigSpec.IntValue maxRecipeGuiHeight;
+	private final ForgeConfigSpec.BooleanValue cacheWarmUpEnabled;
+	private final ForgeConfigSpec.IntValue maxRecipeGuiHistorySize;
 	private final ForgeConfigSpec.ConfigValue<List<? extends String>> searchColorsCfg;
 	private final ForgeConfigSpec.ConfigValue<List<? extends String>> ingredientSorterStagesCfg;
 
@@ -72,6 +74,12 @@ public final class ClientConfig implements IJEIConfig, IClientConfig {
 
 			builder.comment("Max. recipe gui height");
 			maxRecipeGuiHeight = builder.defineInRange("RecipeGuiHeight", defaultValues.maxRecipeGuiHeight, minRecipeGuiHeight, Integer.MAX_VALUE);
+
+			builder.comment("Prepare the ingredient list and recipe lookups in the background after joining a world, so they are fast the first time they are used");
+			cacheWarmUpEnabled = builder.define("CacheWarmUpEnabled", defaultValues.cacheWarmUpEnabled);
+
+			builder.comment("Max. number of recipe gui pages to remember for going back");
+			maxRecipeGuiHistorySize = builder.defineInRange("RecipeGuiHistorySize", defaultValues.maxRecipeGuiHistorySize, 0, Integer.MAX_VALUE);
 		}
 		builder.pop();
 
@@ -134,6 +142,8 @@ public final class ClientConfig implements IJEIConfig, IClientConfig {
 		this.values.giveMode = giveMode.get();
 		this.values.maxColumns = maxColumns.get();
 		this.values.maxRecipeGuiHeight = maxRecipeGuiHeight.get();
+		this.values.cacheWarmUpEnabled = cacheWarmUpEnabled.get();
+		this.values.maxRecipeGuiHistorySize = maxRecipeGuiHistorySize.get();
 		this.searchColors = searchColorsCfg.get();
 
 		this.ingredientSorterStages = ingredientSorterStagesCfg.get()
@@ -163,6 +173,16 @@ public final class ClientConfig implements IJEIConfig, IClientConfig {
 		return values.lowMemorySlowSearchEnabled;
 	}
 
+	@Override
+	public boolean isCacheWarmUpEnabled() {
+		return values.cacheWarmUpEnabled;
+	}
+
+	@Override
+	public int getMaxRecipeGuiHistorySize() {
+		return values.maxRecipeGuiHistorySize;
+	}
+
 	@Override
 	public GiveMode getGiveMode() {
 		return values.giveMode;
@@ -0,0 +1,172 @@
+package mezz.jei.config;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Writes JEI's config files on a background thread, so that a slow config directory does not stall the game.
+ *
+ * Writes to a file that are requested before the previous one has started are combined, and only the latest contents are written.
+ * Each file is written to a temporary file first and then moved over the old one,
+ * so a crash while writing leaves either the old or the new file and never a partial one.
+ * Pending writes are finished when the game shuts down.
+ */
+public final class ConfigFileWriter {
+	private static final Logger LOGGER = LogManager.getLogger();
+	private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+	@Nullable
+	private static ConfigFileWriter instance;
+
+	/**
+	 * All file access happens on this thread, in the order it was requested.
+	 */
+	private final ScheduledExecutorService ioExecutor;
+	/**
+	 * The latest contents of each file that have not been written yet.
+	 */
+	private final Map<File, IFileContents> pendingWrites = new ConcurrentHashMap<>();
+	/**
+	 * The latest scheduled write of each file, so that {@link #flush()} does not have to wait for their delay.
+	 */
+	private final Map<File, ScheduledFuture<?>> scheduledWrites = new ConcurrentHashMap<>();
+
+	public static synchronized ConfigFileWriter getInstance() {
+		if (instance == null) {
+			ConfigFileWriter configFileWriter = new ConfigFileWriter("JEI Config IO");
+			Runtime.getRuntime().addShutdownHook(new Thread(configFileWriter::flush, "JEI Config IO Shutdown"));
+			instance = configFileWriter;
+		}
+		return instance;
+	}
+
+	public ConfigFileWriter(String threadName) {
+		this.ioExecutor = new ScheduledThreadPoolExecutor(1,
+			new ThreadFactoryBuilder()
+				.setNameFormat(threadName)
+				.setDaemon(true)
+				.build()
+		);
+	}
+
+	@FunctionalInterface
+	public interface IFileContents {
+		void write(Writer writer) throws IOException;
+	}
+
+	/**
+	 * Writes the file in the background as soon as possible.
+	 */
+	public void write(File file, IFileContents contents) {
+		write(file, contents, 0);
+	}
+
+	/**
+	 * Writes the file in the background after a delay.
+	 * Writes requested for the same file before then replace these contents and are written at the same time.
+	 *
+	 * The contents are written on another thread, so they must not change after they are passed in here.
+	 */
+	public void write(File file, IFileContents contents, long delayMs) {
+		if (pendingWrites.put(file, contents) == null) {
+			ScheduledFuture<?> scheduledWrite = schedule(() -> writePending(file), delayMs);
+			if (scheduledWrite != null) {
+				scheduledWrites.put(file, scheduledWrite);
+			}
+		}
+	}
+
+	/**
+	 * Runs other file access on the same thread as the writes, in the order it was requested.
+	 */
+	public void execute(Runnable task) {
+		schedule(task, 0);
+	}
+
+	@Nullable
+	private ScheduledFuture<?> schedule(Runnable task, long delayMs) {
+		try {
+			return ioExecutor.schedule(task, delayMs, TimeUnit.MILLISECONDS);
+		} catch (RejectedExecutionException e) {
+			// shutting down, there is no background thread anymore
+			task.run();
+			return null;
+		}
+	}
+
+	private synchronized void writePending(File file) {
+		IFileContents contents = pendingWrites.remove(file);
+		if (contents != null) {
+			try {
+				writeAtomically(file, contents);
+			} catch (IOException | RuntimeException e) {
+				LOGGER.error("Failed to save to file {}", file, e);
+			}
+		}
+	}
+
+	/**
+	 * Writes all pending files without waiting for their delay, and waits for the rest of the file access to finish.
+	 * Nothing can be scheduled after this, later writes happen on the calling thread.
+	 */
+	public void flush() {
+		for (ScheduledFuture<?> scheduledWrite : scheduledWrites.values()) {
+			// written below instead
+			if (scheduledWrite.getDelay(TimeUnit.MILLISECONDS) > 0) {
+				scheduledWrite.cancel(false);
+			}
+		}
+		ioExecutor.shutdown();
+		for (File file : new ArrayList<>(pendingWrites.keySet())) {
+			writePending(file);
+		}
+		try {
+			if (!ioExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+				LOGGER.error("Timed out while saving config files.");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Replaces the file with the contents, without ever leaving a partially written file in its place.
+	 * If writing the contents fails the old file is kept.
+	 */
+	public static void writeAtomically(File file, IFileContents contents) throws IOException {
+		File tempFile = new File(file.getPath() + ".tmp");
+		try (FileOutputStream outputStream = new FileOutputStream(tempFile)) {
+			Writer writer = new OutputStreamWriter(outputStream);
+			contents.write(writer);
+			writer.flush();
+			// make sure the contents are on the disk before the file is replaced
+			outputStream.getFD().sync();
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(tempFile.toPath());
+			throw e;
+		}
+		try {
+			Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+}
@@ -10,4 +10,6 @@ public class ConfigValues {
 	public GiveMode giveMode = GiveMode.MOUSE_PICKUP;
 	public int maxColumns = 100;
 	public int maxRecipeGuiHeight = 350;
+	public boolean cacheWarmUpEnabled = true;
+	public int maxRecipeGuiHistorySize = 100;
 }
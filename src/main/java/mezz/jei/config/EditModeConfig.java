@@ -3,9 +3,10 @@ package mezz.jei.config;
 import javax.annotation.Nullable;
 import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
@@ -24,20 +25,28 @@ public class EditModeConfig implements IEditModeConfig {
 	private static final Logger LOGGER = LogManager.getLogger();
 	private static final boolean defaultEditModeEnabled = false;
 	private static final String[] defaultBlacklist = new String[]{};
+	/**
+	 * Changes are written to the blacklist file after this delay, so that clicking through many ingredients only writes it once.
+	 */
+	private static final long SAVE_DELAY_MS = 1000;
 
 	private boolean editModeEnabled = defaultEditModeEnabled;
 	private final Set<String> blacklist = new LinkedHashSet<>();
 
 	@Nullable
 	private final File blacklistConfigFile;
+	@Nullable
+	private final ConfigFileWriter configFileWriter;
 
 	public EditModeConfig(@Nullable File jeiConfigurationDir) {
 		Collections.addAll(blacklist, defaultBlacklist);
 		if (jeiConfigurationDir != null) {
 			blacklistConfigFile = new File(jeiConfigurationDir, "blacklist.cfg");
 			loadBlacklistConfig();
+			configFileWriter = ConfigFileWriter.getInstance();
 		} else {
 			blacklistConfigFile = null;
+			configFileWriter = null;
 		}
 	}
 
@@ -58,56 +67,46 @@ public class EditModeConfig implements IEditModeConfig {
 		}
 	}
 
+	/**
+	 * Saves a copy of the current blacklist in the background, after a short delay.
+	 * Saves requested before the delay is over are combined into one.
+	 */
 	private void saveBlacklist() {
-		if (blacklistConfigFile != null) {
-			try {
-				if (blacklistConfigFile.createNewFile()) {
-					LOGGER.debug("Created blacklist config file: {}", blacklistConfigFile);
-				}
-				try (FileWriter writer = new FileWriter(blacklistConfigFile)) {
-					IOUtils.writeLines(blacklist, "\n", writer);
-				}
-			} catch (IOException e) {
-				LOGGER.error("Failed to save blacklist to file {}", blacklistConfigFile, e);
-			}
+		if (configFileWriter != null && blacklistConfigFile != null) {
+			List<String> lines = new ArrayList<>(blacklist);
+			configFileWriter.write(blacklistConfigFile, writer -> IOUtils.writeLines(lines, "\n", writer), SAVE_DELAY_MS);
 		}
 	}
 
 	@Override
 	public <V> void addIngredientToConfigBlacklist(IngredientFilter ingredientFilter, IIngredientManager ingredientManager, V ingredient, IngredientBlacklistType blacklistType, IIngredientHelper<V> ingredientHelper) {
+		Set<String> changedUids = new HashSet<>();
 		// combine item-level blacklist into wildcard-level ones
 		if (blacklistType == IngredientBlacklistType.ITEM) {
 			final String uid = getIngredientUid(ingredient, IngredientBlacklistType.ITEM, ingredientHelper);
-			List<IIngredientListElementInfo<V>> elementsToBeBlacklisted = ingredientFilter.getMatches(ingredient, ingredientHelper, (input) -> getIngredientUid(input, IngredientBlacklistType.WILDCARD, ingredientHelper));
+			List<IIngredientListElementInfo<V>> elementsToBeBlacklisted = ingredientFilter.getWildcardMatches(ingredient, ingredientHelper);
 			if (areAllBlacklisted(elementsToBeBlacklisted, ingredientHelper, uid)) {
-				if (addIngredientToConfigBlacklist(ingredientFilter, ingredient, IngredientBlacklistType.WILDCARD, ingredientHelper)) {
-					saveBlacklist();
-				}
-				return;
+				blacklistType = IngredientBlacklistType.WILDCARD;
 			}
 		}
-		if (addIngredientToConfigBlacklist(ingredientFilter, ingredient, blacklistType, ingredientHelper)) {
-			saveBlacklist();
-		}
+		addIngredientToConfigBlacklist(ingredientFilter, ingredient, blacklistType, ingredientHelper, changedUids);
+		onBlacklistChanged(ingredientFilter, changedUids);
 	}
 
-	private <V> boolean addIngredientToConfigBlacklist(IngredientFilter ingredientFilter, V ingredient, IngredientBlacklistType blacklistType, IIngredientHelper<V> ingredientHelper) {
-		boolean updated = false;
-
+	private <V> void addIngredientToConfigBlacklist(IngredientFilter ingredientFilter, V ingredient, IngredientBlacklistType blacklistType, IIngredientHelper<V> ingredientHelper, Set<String> changedUids) {
 		// remove lower-level blacklist entries when a higher-level one is added
 		if (blacklistType == IngredientBlacklistType.WILDCARD) {
-			List<IIngredientListElementInfo<V>> elementsToBeBlacklisted = ingredientFilter.getMatches(ingredient, ingredientHelper, (input) -> getIngredientUid(input, blacklistType, ingredientHelper));
+			List<IIngredientListElementInfo<V>> elementsToBeBlacklisted = ingredientFilter.getWildcardMatches(ingredient, ingredientHelper);
 			for (IIngredientListElementInfo<V> elementToBeBlacklistedInfo : elementsToBeBlacklisted) {
 				IIngredientListElement<V> elementToBeBlacklisted = elementToBeBlacklistedInfo.getElement();
 				V ingredientToBeBlacklisted = elementToBeBlacklisted.getIngredient();
 				String uid = getIngredientUid(ingredientToBeBlacklisted, IngredientBlacklistType.ITEM, ingredientHelper);
-				updated |= blacklist.remove(uid);
+				removeFromBlacklist(uid, changedUids);
 			}
 		}
 
 		final String uid = getIngredientUid(ingredient, blacklistType, ingredientHelper);
-		updated |= blacklist.add(uid);
-		return updated;
+		addToBlacklist(uid, changedUids);
 	}
 
 	private <V> boolean areAllBlacklisted(List<IIngredientListElementInfo<V>> elementInfos, IIngredientHelper<V> ingredientHelper, String newUid) {
@@ -124,35 +123,87 @@ public class EditModeConfig implements IEditModeConfig {
 
 	@Override
 	public <V> void removeIngredientFromConfigBlacklist(IngredientFilter ingredientFilter, IIngredientManager ingredientManager, V ingredient, IngredientBlacklistType blacklistType, IIngredientHelper<V> ingredientHelper) {
-		boolean updated = false;
+		Set<String> changedUids = new HashSet<>();
 
 		if (blacklistType == IngredientBlacklistType.ITEM) {
 			// deconstruct any wildcard blacklist since we are removing one element from it
 			final String wildUid = getIngredientUid(ingredient, IngredientBlacklistType.WILDCARD, ingredientHelper);
-			if (blacklist.contains(wildUid)) {
-				updated = true;
-				blacklist.remove(wildUid);
-				List<IIngredientListElementInfo<V>> modMatches = ingredientFilter.getMatches(ingredient, ingredientHelper, (input) -> getIngredientUid(input, IngredientBlacklistType.WILDCARD, ingredientHelper));
+			if (removeFromBlacklist(wildUid, changedUids)) {
+				List<IIngredientListElementInfo<V>> modMatches = ingredientFilter.getWildcardMatches(ingredient, ingredientHelper);
 				for (IIngredientListElementInfo<V> modMatch : modMatches) {
 					IIngredientListElement<V> element = modMatch.getElement();
-					addIngredientToConfigBlacklist(ingredientFilter, element.getIngredient(), IngredientBlacklistType.ITEM, ingredientHelper);
+					addIngredientToConfigBlacklist(ingredientFilter, element.getIngredient(), IngredientBlacklistType.ITEM, ingredientHelper, changedUids);
 				}
 			}
 		} else if (blacklistType == IngredientBlacklistType.WILDCARD) {
 			// remove any item-level blacklist on items that match this wildcard
-			List<IIngredientListElementInfo<V>> modMatches = ingredientFilter.getMatches(ingredient, ingredientHelper, (input) -> getIngredientUid(input, IngredientBlacklistType.WILDCARD, ingredientHelper));
+			List<IIngredientListElementInfo<V>> modMatches = ingredientFilter.getWildcardMatches(ingredient, ingredientHelper);
 			for (IIngredientListElementInfo<V> modMatch : modMatches) {
 				IIngredientListElement<V> element = modMatch.getElement();
 				V matchIngredient = element.getIngredient();
 				final String uid = getIngredientUid(matchIngredient, IngredientBlacklistType.ITEM, ingredientHelper);
-				updated |= blacklist.remove(uid);
+				removeFromBlacklist(uid, changedUids);
 			}
 		}
 
 		final String uid = getIngredientUid(ingredient, blacklistType, ingredientHelper);
-		updated |= blacklist.remove(uid);
-		if (updated) {
+		removeFromBlacklist(uid, changedUids);
+		onBlacklistChanged(ingredientFilter, changedUids);
+	}
+
+	@Override
+	public void addModToConfigBlacklist(IngredientFilter ingredientFilter, IIngredientManager ingredientManager, String modId) {
+		Set<String> changedUids = new HashSet<>();
+		for (IIngredientListElementInfo<?> elementInfo : ingredientFilter.getElementsFromMod(modId)) {
+			addWildcardToConfigBlacklist(ingredientManager, elementInfo.getElement(), changedUids);
+		}
+		onBlacklistChanged(ingredientFilter, changedUids);
+	}
+
+	private <V> void addWildcardToConfigBlacklist(IIngredientManager ingredientManager, IIngredientListElement<V> element, Set<String> changedUids) {
+		V ingredient = element.getIngredient();
+		IIngredientHelper<V> ingredientHelper = ingredientManager.getIngredientHelper(ingredient);
+		removeFromBlacklist(getIngredientUid(ingredient, IngredientBlacklistType.ITEM, ingredientHelper), changedUids);
+		addToBlacklist(getIngredientUid(ingredient, IngredientBlacklistType.WILDCARD, ingredientHelper), changedUids);
+	}
+
+	@Override
+	public void removeModFromConfigBlacklist(IngredientFilter ingredientFilter, IIngredientManager ingredientManager, String modId) {
+		Set<String> changedUids = new HashSet<>();
+		for (IIngredientListElementInfo<?> elementInfo : ingredientFilter.getElementsFromMod(modId)) {
+			removeFromConfigBlacklist(ingredientManager, elementInfo.getElement(), changedUids);
+		}
+		onBlacklistChanged(ingredientFilter, changedUids);
+	}
+
+	private <V> void removeFromConfigBlacklist(IIngredientManager ingredientManager, IIngredientListElement<V> element, Set<String> changedUids) {
+		V ingredient = element.getIngredient();
+		IIngredientHelper<V> ingredientHelper = ingredientManager.getIngredientHelper(ingredient);
+		for (IngredientBlacklistType blacklistType : IngredientBlacklistType.VALUES) {
+			removeFromBlacklist(getIngredientUid(ingredient, blacklistType, ingredientHelper), changedUids);
+		}
+	}
+
+	private boolean addToBlacklist(String uid, Set<String> changedUids) {
+		if (blacklist.add(uid)) {
+			changedUids.add(uid);
+			return true;
+		}
+		return false;
+	}
+
+	private boolean removeFromBlacklist(String uid, Set<String> changedUids) {
+		if (blacklist.remove(uid)) {
+			changedUids.add(uid);
+			return true;
+		}
+		return false;
+	}
+
+	private void onBlacklistChanged(IngredientFilter ingredientFilter, Set<String> changedUids) {
+		if (!changedUids.isEmpty()) {
 			saveBlacklist();
+			ingredientFilter.onConfigBlacklistChanged(changedUids);
 		}
 	}
 
@@ -12,6 +12,10 @@ public interface IClientConfig {
 
 	boolean isLowMemorySlowSearchEnabled();
 
+	boolean isCacheWarmUpEnabled();
+
+	int getMaxRecipeGuiHistorySize();
+
 	GiveMode getGiveMode();
 
 	int getMaxColumns();
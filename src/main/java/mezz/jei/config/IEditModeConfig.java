@@ -13,4 +13,8 @@ public interface IEditModeConfig {
 	<V> void addIngredientToConfigBlacklist(IngredientFilter ingredientFilter, IIngredientManager ingredientManager, V ingredient, IngredientBlacklistType blacklistType, IIngredientHelper<V> ingredientHelper);
 
 	<V> void removeIngredientFromConfigBlacklist(IngredientFilter ingredientFilter, IIngredientManager ingredientManager, V ingredient, IngredientBlacklistType blacklistType, IIngredientHelper<V> ingredientHelper);
+
+	void addModToConfigBlacklist(IngredientFilter ingredientFilter, IIngredientManager ingredientManager, String modId);
+
+	void removeModFromConfigBlacklist(IngredientFilter ingredientFilter, IIngredientManager ingredientManager, String modId);
 }
@@ -61,7 +61,7 @@ public class JEIClientConfig
 
 			GuiEditConfig gui = new GuiEditConfig(group);
 			group.savedCallback = b -> {
-				if(b) config.save();
+				if(b) ConfigFileWriter.getInstance().execute(config::save);
 				mc.displayGuiScreen(new InventoryScreen(mc.player));
 			};
 			gui.openGui();
@@ -7,6 +7,7 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 
 public abstract class MappedSortingConfig<T, V> extends SortingConfig<V> {
@@ -27,4 +28,8 @@ public abstract class MappedSortingConfig<T, V> extends SortingConfig<V> {
 	public Comparator<T> getComparatorFromMappedValues(Collection<V> allMappedValues) {
 		return super.getComparator(allMappedValues, mapping);
 	}
+
+	public ToIntFunction<T> getRankFunctionFromMappedValues(Collection<V> allMappedValues) {
+		return super.getRankFunction(allMappedValues, mapping);
+	}
 }
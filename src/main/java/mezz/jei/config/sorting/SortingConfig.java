@@ -1,5 +1,6 @@
 package mezz.jei.config.sorting;
 
+import mezz.jei.config.ConfigFileWriter;
 import mezz.jei.config.sorting.serializers.ISortingSerializer;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -7,14 +8,15 @@ import org.apache.logging.log4j.Logger;
 import javax.annotation.Nullable;
 import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 import java.util.function.Function;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 
 public abstract class SortingConfig<T> {
@@ -23,6 +25,11 @@ public abstract class SortingConfig<T> {
 	private final ISortingSerializer<T> serializer;
 	@Nullable
 	private List<T> sorted;
+	/**
+	 * The index of each value in {@link #sorted}, so that comparisons do not have to search the list.
+	 */
+	@Nullable
+	private Map<T, Integer> ranks;
 
 	public SortingConfig(File file, ISortingSerializer<T> serializer) {
 		this.file = file;
@@ -31,12 +38,11 @@ public abstract class SortingConfig<T> {
 
 	abstract protected Comparator<T> getDefaultSortOrder();
 
+	/**
+	 * Saves in the background, this is called while the ingredient list is being sorted.
+	 */
 	private void save(List<T> sorted) {
-		try (FileWriter writer = new FileWriter(this.file)) {
-			this.serializer.write(writer, sorted);
-		} catch (IOException e) {
-			LOGGER.error("Failed to save to file {}", this.file, e);
-		}
+		ConfigFileWriter.getInstance().write(this.file, writer -> this.serializer.write(writer, sorted));
 	}
 
 	@Nullable
@@ -58,7 +64,8 @@ public abstract class SortingConfig<T> {
 		if (sortedOnFile == null) {
 			sortOrder = getDefaultSortOrder();
 		} else {
-			Comparator<T> existingOrder = Comparator.comparingInt(t -> indexOfSort(sortedOnFile.indexOf(t)));
+			Map<T, Integer> ranksOnFile = getRanks(sortedOnFile);
+			Comparator<T> existingOrder = Comparator.comparingInt(t -> getRank(ranksOnFile, t));
 			Comparator<T> defaultOrder = getDefaultSortOrder();
 			sortOrder = existingOrder.thenComparing(defaultOrder);
 		}
@@ -67,32 +74,53 @@ public abstract class SortingConfig<T> {
 			.distinct()
 			.sorted(sortOrder)
 			.collect(Collectors.toList());
+		this.ranks = getRanks(this.sorted);
 
 		if (!Objects.equals(sortedOnFile, this.sorted)) {
 			save(this.sorted);
 		}
 	}
 
-	private int indexOfSort(int index) {
-		if (index < 0) {
+	/**
+	 * @return the index of the first occurrence of each value in the list.
+	 */
+	private static <T> Map<T, Integer> getRanks(List<T> sorted) {
+		Map<T, Integer> ranks = new HashMap<>(sorted.size() * 2);
+		for (int i = 0; i < sorted.size(); i++) {
+			ranks.putIfAbsent(sorted.get(i), i);
+		}
+		return ranks;
+	}
+
+	private static <T> int getRank(Map<T, Integer> ranks, T value) {
+		Integer rank = ranks.get(value);
+		if (rank == null) {
 			return Integer.MAX_VALUE;
 		}
-		return index;
+		return rank;
 	}
 
-	private List<T> getSorted(Collection<T> allValues) {
-		if (this.sorted == null) {
+	private Map<T, Integer> getRanks(Collection<T> allValues) {
+		if (this.ranks == null) {
 			load(allValues);
 		}
-		return this.sorted;
+		return this.ranks;
 	}
 
-	public <V> Comparator<V> getComparator(Collection<T> allValues, Function<V, T> mapping) {
-		List<T> sorted = getSorted(allValues);
-		return Comparator.comparingInt(o -> {
+	/**
+	 * @return the position of each value in the sort order, {@link Integer#MAX_VALUE} for unknown values.
+	 */
+	public <V> ToIntFunction<V> getRankFunction(Collection<T> allValues, Function<V, T> mapping) {
+		Map<T, Integer> ranks = getRanks(allValues);
+		return o -> {
 			T value = mapping.apply(o);
-			return indexOfSort(sorted.indexOf(value));
-		});
+			return getRank(ranks, value);
+		};
+	}
+
+	public <V> Comparator<V> getComparator(Collection<T> allValues, Function<V, T> mapping) {
+		ToIntFunction<V> rankFunction = getRankFunction(allValues, mapping);
+		return Comparator.comparingInt(rankFunction);
 	}
 
 }
@@ -2,9 +2,9 @@ package mezz.jei.config.sorting.serializers;
 
 import org.apache.commons.io.IOUtils;
 
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Reader;
+import java.io.Writer;
 import java.util.List;
 
 public final class SortingSerializers {
@@ -15,7 +15,7 @@ public final class SortingSerializers {
 		}
 
 		@Override
-		public void write(FileWriter writer, List<String> sorted) throws IOException {
+		public void write(Writer writer, List<String> sorted) throws IOException {
 			IOUtils.writeLines(sorted, "\n", writer);
 		}
 	};
@@ -6,22 +6,19 @@ import java.util.List;
 
 import com.mojang.blaze3d.systems.RenderSystem;
 import net.minecraft.client.Minecraft;
-import net.minecraft.client.gui.AbstractGui;
 import net.minecraft.client.renderer.ItemRenderer;
 import net.minecraft.client.renderer.Rectangle2d;
 
 import mezz.jei.api.gui.handlers.IGhostIngredientHandler;
 import mezz.jei.api.gui.handlers.IGhostIngredientHandler.Target;
 import mezz.jei.api.ingredients.IIngredientRenderer;
-import mezz.jei.util.MathUtil;
 import org.lwjgl.opengl.GL11;
 
 public class GhostIngredientDrag<T> {
-	private static final int targetColor = 0x4013C90A;
-	private static final int hoverColor = 0x804CC919;
+	private static final int targetColor = GhostIngredientTargets.targetColor;
 
 	private final IGhostIngredientHandler<?> handler;
-	private final List<Target<T>> targets;
+	private final GhostIngredientTargets<T> targets;
 	private final IIngredientRenderer<T> ingredientRenderer;
 	private final T ingredient;
 	private final double mouseStartX;
@@ -39,7 +36,7 @@ public class GhostIngredientDrag<T> {
 		@Nullable Rectangle2d origin
 	) {
 		this.handler = handler;
-		this.targets = targets;
+		this.targets = new GhostIngredientTargets<>(targets);
 		this.ingredientRenderer = ingredientRenderer;
 		this.ingredient = ingredient;
 		this.origin = origin;
@@ -49,7 +46,7 @@ public class GhostIngredientDrag<T> {
 
 	public void drawTargets(MatrixStack matrixStack, int mouseX, int mouseY) {
 		if (handler.shouldHighlightTargets()) {
-			drawTargets(matrixStack, mouseX, mouseY, targets);
+			targets.draw(matrixStack, mouseX, mouseY);
 		}
 	}
 
@@ -98,31 +95,12 @@ public class GhostIngredientDrag<T> {
 		itemRenderer.zLevel -= 150.0F;
 	}
 
-	@SuppressWarnings("deprecation")
-	public static <V> void drawTargets(MatrixStack matrixStack, int mouseX, int mouseY, List<Target<V>> targets) {
-		RenderSystem.disableLighting();
-		RenderSystem.disableDepthTest();
-		for (Target<?> target : targets) {
-			Rectangle2d area = target.getArea();
-			int color;
-			if (MathUtil.contains(area, mouseX, mouseY)) {
-				color = hoverColor;
-			} else {
-				color = targetColor;
-			}
-			AbstractGui.fill(matrixStack, area.getX(), area.getY(), area.getX() + area.getWidth(), area.getY() + area.getHeight(), color);
-		}
-		RenderSystem.color4f(1f, 1f, 1f, 1f);
-	}
-
 	public boolean onClick(double mouseX, double mouseY) {
-		for (Target<T> target : targets) {
-			Rectangle2d area = target.getArea();
-			if (MathUtil.contains(area, mouseX, mouseY)) {
-				target.accept(ingredient);
-				handler.onComplete();
-				return true;
-			}
+		Target<T> target = targets.getTargetAt(mouseX, mouseY);
+		if (target != null) {
+			target.accept(ingredient);
+			handler.onComplete();
+			return true;
 		}
 		handler.onComplete();
 		return false;
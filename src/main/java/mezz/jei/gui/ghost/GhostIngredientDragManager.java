@@ -12,7 +12,10 @@ import net.minecraft.client.gui.screen.inventory.ContainerScreen;
 import net.minecraft.client.renderer.Rectangle2d;
 
 import mezz.jei.api.gui.handlers.IGhostIngredientHandler;
+import mezz.jei.api.ingredients.IIngredientHelper;
 import mezz.jei.api.ingredients.IIngredientRenderer;
+import mezz.jei.api.ingredients.IIngredientType;
+import mezz.jei.api.ingredients.subtypes.UidContext;
 import mezz.jei.config.IWorldConfig;
 import mezz.jei.gui.GuiScreenHelper;
 import mezz.jei.gui.ingredients.IIngredientListElement;
@@ -20,6 +23,12 @@ import mezz.jei.ingredients.IngredientManager;
 import mezz.jei.input.IClickedIngredient;
 
 public class GhostIngredientDragManager {
+	/**
+	 * How long an ingredient has to be hovered before its targets are looked up,
+	 * so that sweeping the mouse across the ingredient list does not look up targets for every ingredient on the way.
+	 */
+	private static final long TARGET_QUERY_DELAY_MS = 100;
+
 	private final IGhostIngredientDragSource source;
 	private final GuiScreenHelper guiScreenHelper;
 	private final IngredientManager ingredientManager;
@@ -28,9 +37,15 @@ public class GhostIngredientDragManager {
 	@Nullable
 	private GhostIngredientDrag<?> ghostIngredientDrag;
 	@Nullable
-	private Object hoveredIngredient;
+	private IIngredientListElement<?> hoveredElement;
+	@Nullable
+	private IIngredientType<?> hoveredIngredientType;
 	@Nullable
-	private List<IGhostIngredientHandler.Target<Object>> hoveredIngredientTargets;
+	private String hoveredIngredientUid;
+	private long hoveredTime;
+	private boolean hoveredTargetsQueried = true;
+	@Nullable
+	private GhostIngredientTargets<Object> hoveredIngredientTargets;
 
 	public GhostIngredientDragManager(IGhostIngredientDragSource source, GuiScreenHelper guiScreenHelper, IngredientManager ingredientManager, IWorldConfig worldConfig) {
 		this.source = source;
@@ -59,22 +74,55 @@ public class GhostIngredientDragManager {
 			this.ghostIngredientDrag.drawTargets(matrixStack, mouseX, mouseY);
 		} else {
 			IIngredientListElement<?> elementUnderMouse = this.source.getElementUnderMouse();
-			Object hovered = elementUnderMouse == null ? null : elementUnderMouse.getIngredient();
-			if (!Objects.equals(hovered, this.hoveredIngredient)) {
-				this.hoveredIngredient = hovered;
-				this.hoveredIngredientTargets = null;
-				Screen currentScreen = minecraft.currentScreen;
-				if (currentScreen != null && hovered != null) {
-					IGhostIngredientHandler<Screen> handler = guiScreenHelper.getGhostIngredientHandler(currentScreen);
-					if (handler != null && handler.shouldHighlightTargets()) {
-						this.hoveredIngredientTargets = handler.getTargets(currentScreen, hovered, false);
-					}
-				}
+			if (elementUnderMouse != this.hoveredElement) {
+				this.hoveredElement = elementUnderMouse;
+				updateHoveredIngredient(elementUnderMouse);
+			}
+			if (worldConfig.isCheatItemsEnabled()) {
+				return;
 			}
-			if (this.hoveredIngredientTargets != null && !worldConfig.isCheatItemsEnabled()) {
-				GhostIngredientDrag.drawTargets(matrixStack, mouseX, mouseY, this.hoveredIngredientTargets);
+			if (!this.hoveredTargetsQueried && this.hoveredElement != null && System.currentTimeMillis() - this.hoveredTime >= TARGET_QUERY_DELAY_MS) {
+				this.hoveredTargetsQueried = true;
+				this.hoveredIngredientTargets = getHoveredTargets(minecraft, this.hoveredElement.getIngredient());
+			}
+			if (this.hoveredIngredientTargets != null) {
+				this.hoveredIngredientTargets.draw(matrixStack, mouseX, mouseY);
+			}
+		}
+	}
+
+	/**
+	 * Different elements of the same ingredient, like a bookmark and its entry in the ingredient list, share their targets.
+	 */
+	private <V> void updateHoveredIngredient(@Nullable IIngredientListElement<V> element) {
+		IIngredientType<V> ingredientType = null;
+		String uid = null;
+		if (element != null) {
+			V ingredient = element.getIngredient();
+			ingredientType = ingredientManager.getIngredientType(ingredient);
+			IIngredientHelper<V> ingredientHelper = ingredientManager.getIngredientHelper(ingredientType);
+			uid = ingredientHelper.getUniqueId(ingredient, UidContext.Ingredient);
+		}
+		if (ingredientType != this.hoveredIngredientType || !Objects.equals(uid, this.hoveredIngredientUid)) {
+			this.hoveredIngredientType = ingredientType;
+			this.hoveredIngredientUid = uid;
+			this.hoveredTime = System.currentTimeMillis();
+			this.hoveredTargetsQueried = false;
+			this.hoveredIngredientTargets = null;
+		}
+	}
+
+	@Nullable
+	private GhostIngredientTargets<Object> getHoveredTargets(Minecraft minecraft, Object hovered) {
+		Screen currentScreen = minecraft.currentScreen;
+		if (currentScreen != null) {
+			IGhostIngredientHandler<Screen> handler = guiScreenHelper.getGhostIngredientHandler(currentScreen);
+			if (handler != null && handler.shouldHighlightTargets()) {
+				List<IGhostIngredientHandler.Target<Object>> targets = handler.getTargets(currentScreen, hovered, false);
+				return new GhostIngredientTargets<>(targets);
 			}
 		}
+		return null;
 	}
 
 	public boolean handleMouseClicked(double mouseX, double mouseY) {
@@ -0,0 +1,189 @@
+package mezz.jei.gui.ghost;
+
+import com.mojang.blaze3d.matrix.MatrixStack;
+import javax.annotation.Nullable;
+import java.util.List;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.client.renderer.BufferBuilder;
+import net.minecraft.client.renderer.Rectangle2d;
+import net.minecraft.client.renderer.Tessellator;
+import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
+import net.minecraft.util.math.vector.Matrix4f;
+
+import mezz.jei.api.gui.handlers.IGhostIngredientHandler.Target;
+import mezz.jei.util.MathUtil;
+import org.lwjgl.opengl.GL11;
+
+/**
+ * The targets that a ghost ingredient can be dropped on.
+ *
+ * Target areas are bucketed into a grid, so finding the target under the mouse only checks the targets near it,
+ * and all of the target highlights are drawn together in one batch.
+ * Targets can move (for example when their screen scrolls), so their areas are read again before every draw and hit-test,
+ * and the grid is rebuilt when any of them changed.
+ */
+final class GhostIngredientTargets<T> {
+	static final int targetColor = 0x4013C90A;
+	private static final int hoverColor = 0x804CC919;
+	private static final int CELL_SIZE = 32;
+	/**
+	 * Targets covering more cells than this are checked on every hit-test instead of being added to each cell.
+	 */
+	private static final int MAX_CELLS_PER_TARGET = 64;
+
+	private final List<Target<T>> targets;
+	private final Rectangle2d[] areas;
+	/**
+	 * Indexes of the targets in each grid cell, in the same order as the targets.
+	 */
+	private final Long2ObjectMap<IntList> grid = new Long2ObjectOpenHashMap<>();
+	private final IntList largeTargets = new IntArrayList();
+
+	public GhostIngredientTargets(List<Target<T>> targets) {
+		this.targets = targets;
+		this.areas = new Rectangle2d[targets.size()];
+		for (int i = 0; i < areas.length; i++) {
+			areas[i] = targets.get(i).getArea();
+		}
+		buildGrid();
+	}
+
+	private void updateAreas() {
+		boolean changed = false;
+		for (int i = 0; i < areas.length; i++) {
+			Rectangle2d area = targets.get(i).getArea();
+			if (!changed && !isSameArea(areas[i], area)) {
+				changed = true;
+			}
+			areas[i] = area;
+		}
+		if (changed) {
+			buildGrid();
+		}
+	}
+
+	private static boolean isSameArea(Rectangle2d a, Rectangle2d b) {
+		return a.getX() == b.getX() &&
+			a.getY() == b.getY() &&
+			a.getWidth() == b.getWidth() &&
+			a.getHeight() == b.getHeight();
+	}
+
+	private void buildGrid() {
+		grid.clear();
+		largeTargets.clear();
+		for (int i = 0; i < areas.length; i++) {
+			addToGrid(i, areas[i]);
+		}
+	}
+
+	private void addToGrid(int index, Rectangle2d area) {
+		if (area.getWidth() <= 0 || area.getHeight() <= 0) {
+			return;
+		}
+		int minCellX = getCell(area.getX());
+		int minCellY = getCell(area.getY());
+		int maxCellX = getCell(area.getX() + area.getWidth() - 1);
+		int maxCellY = getCell(area.getY() + area.getHeight() - 1);
+		long cellCount = (maxCellX - minCellX + 1L) * (maxCellY - minCellY + 1L);
+		if (cellCount > MAX_CELLS_PER_TARGET) {
+			largeTargets.add(index);
+			return;
+		}
+		for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+			for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+				grid.computeIfAbsent(getCellKey(cellX, cellY), k -> new IntArrayList()).add(index);
+			}
+		}
+	}
+
+	private static int getCell(int coordinate) {
+		return Math.floorDiv(coordinate, CELL_SIZE);
+	}
+
+	private static long getCellKey(int cellX, int cellY) {
+		return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+	}
+
+	public boolean isEmpty() {
+		return areas.length == 0;
+	}
+
+	/**
+	 * @return the first target containing the point, like checking each target in order would.
+	 */
+	@Nullable
+	public Target<T> getTargetAt(double mouseX, double mouseY) {
+		updateAreas();
+		int cellX = getCell((int) Math.floor(mouseX));
+		int cellY = getCell((int) Math.floor(mouseY));
+		IntList cellTargets = grid.get(getCellKey(cellX, cellY));
+		int index = Math.min(
+			getFirstContaining(cellTargets, mouseX, mouseY),
+			getFirstContaining(largeTargets, mouseX, mouseY)
+		);
+		if (index == Integer.MAX_VALUE) {
+			return null;
+		}
+		return targets.get(index);
+	}
+
+	private int getFirstContaining(@Nullable IntList indexes, double mouseX, double mouseY) {
+		if (indexes != null) {
+			for (int i = 0; i < indexes.size(); i++) {
+				int index = indexes.getInt(i);
+				if (MathUtil.contains(areas[index], mouseX, mouseY)) {
+					return index;
+				}
+			}
+		}
+		return Integer.MAX_VALUE;
+	}
+
+	@SuppressWarnings("deprecation")
+	public void draw(MatrixStack matrixStack, int mouseX, int mouseY) {
+		if (isEmpty()) {
+			return;
+		}
+		updateAreas();
+		RenderSystem.disableLighting();
+		RenderSystem.disableDepthTest();
+		RenderSystem.enableBlend();
+		RenderSystem.disableTexture();
+		RenderSystem.defaultBlendFunc();
+
+		Matrix4f matrix = matrixStack.getLast().getMatrix();
+		Tessellator tessellator = Tessellator.getInstance();
+		BufferBuilder bufferBuilder = tessellator.getBuffer();
+		bufferBuilder.begin(GL11.GL_QUADS, DefaultVertexFormats.POSITION_COLOR);
+		for (Rectangle2d area : areas) {
+			int color = MathUtil.contains(area, mouseX, mouseY) ? hoverColor : targetColor;
+			addRectangle(bufferBuilder, matrix, area, color);
+		}
+		tessellator.draw();
+
+		RenderSystem.enableTexture();
+		RenderSystem.disableBlend();
+		RenderSystem.color4f(1f, 1f, 1f, 1f);
+	}
+
+	private static void addRectangle(BufferBuilder bufferBuilder, Matrix4f matrix, Rectangle2d area, int color) {
+		int alpha = color >> 24 & 255;
+		int red = color >> 16 & 255;
+		int green = color >> 8 & 255;
+		int blue = color & 255;
+		float minX = area.getX();
+		float minY = area.getY();
+		float maxX = minX + area.getWidth();
+		float maxY = minY + area.getHeight();
+		bufferBuilder.pos(matrix, minX, maxY, 0).color(red, green, blue, alpha).endVertex();
+		bufferBuilder.pos(matrix, maxX, maxY, 0).color(red, green, blue, alpha).endVertex();
+		bufferBuilder.pos(matrix, maxX, minY, 0).color(red, green, blue, alpha).endVertex();
+		bufferBuilder.pos(matrix, minX, minY, 0).color(red, green, blue, alpha).endVertex();
+	}
+}
@@ -2,13 +2,16 @@ package mezz.jei.gui.ingredients;
 
 import com.mojang.blaze3d.matrix.MatrixStack;
 import javax.annotation.Nullable;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
+import com.google.common.collect.MapMaker;
 import com.mojang.blaze3d.systems.RenderSystem;
 import mezz.jei.api.ingredients.subtypes.UidContext;
 import net.minecraft.client.Minecraft;
@@ -37,7 +40,9 @@ import mezz.jei.gui.Focus;
 import mezz.jei.gui.TooltipRenderer;
 import mezz.jei.ingredients.IngredientFilter;
 import mezz.jei.ingredients.IngredientManager;
+import mezz.jei.ingredients.Ingredients;
 import mezz.jei.render.IngredientRenderHelper;
+import mezz.jei.render.TooltipCache;
 import mezz.jei.util.ErrorUtil;
 import net.minecraft.util.text.TranslationTextComponent;
 import org.apache.logging.log4j.LogManager;
@@ -45,6 +50,14 @@ import org.apache.logging.log4j.Logger;
 
 public class GuiIngredient<T> extends AbstractGui implements IGuiIngredient<T> {
 	private static final Logger LOGGER = LogManager.getLogger();
+	private static final TooltipCache<ITextComponent> TOOLTIP_CACHE = new TooltipCache<>("Recipe slot");
+
+	/**
+	 * Recipe slots often share their ingredient lists, see {@link Ingredients#isSharedSlot}.
+	 * The visible ingredients of each shared list are remembered until the ingredient filter's hidden ingredients change.
+	 * Other lists may be changed by the plugin that made them, so they are not cached.
+	 */
+	private static final Map<List<?>, VisibleIngredients<?>> VISIBLE_INGREDIENTS_CACHE = new MapMaker().weakKeys().makeMap();
 
 	private final int slotIndex;
 	private final boolean input;
@@ -129,12 +142,32 @@ public class GuiIngredient<T> extends AbstractGui implements IGuiIngredient<T> {
 		enabled = !this.displayIngredients.isEmpty();
 	}
 
-	private List<T> filterOutHidden(List<T> ingredients) {
+	private static <T> List<T> filterOutHidden(List<T> ingredients) {
 		if (ingredients.isEmpty()) {
 			return ingredients;
 		}
-		IngredientManager ingredientManager = Internal.getIngredientManager();
 		IngredientFilter ingredientFilter = Internal.getIngredientFilter();
+		if (!Ingredients.isSharedSlot(ingredients)) {
+			return findVisible(ingredients, ingredientFilter);
+		}
+		VisibleIngredients<?> cached = VISIBLE_INGREDIENTS_CACHE.get(ingredients);
+		if (cached != null && cached.isValid(ingredientFilter)) {
+			if (cached.visible == null) {
+				return ingredients;
+			}
+			@SuppressWarnings("unchecked")
+			List<T> visible = (List<T>) cached.visible;
+			return visible;
+		}
+		List<T> visible = findVisible(ingredients, ingredientFilter);
+		// the cache must not refer to its own keys, or they will never be collected
+		List<T> cachedVisible = visible == ingredients ? null : Collections.unmodifiableList(visible);
+		VISIBLE_INGREDIENTS_CACHE.put(ingredients, new VisibleIngredients<>(ingredientFilter, cachedVisible));
+		return visible;
+	}
+
+	private static <T> List<T> findVisible(List<T> ingredients, IngredientFilter ingredientFilter) {
+		IngredientManager ingredientManager = Internal.getIngredientManager();
 		List<T> visible = new ArrayList<>();
 		for (T ingredient : ingredients) {
 			if (ingredient == null || ingredientManager.isIngredientVisible(ingredient, ingredientFilter)) {
@@ -217,23 +250,9 @@ public class GuiIngredient<T> extends AbstractGui implements IGuiIngredient<T> {
 				0x7FFFFFFF);
 			RenderSystem.color4f(1f, 1f, 1f, 1f);
 
-			IModIdHelper modIdHelper = Internal.getHelpers().getModIdHelper();
-			List<ITextComponent> tooltip = IngredientRenderHelper.getIngredientTooltipSafe(value, ingredientRenderer, ingredientHelper, modIdHelper);
-			for (ITooltipCallback<T> tooltipCallback : this.tooltipCallbacks) {
-				tooltipCallback.onTooltip(slotIndex, input, value, tooltip);
-			}
-
+			List<ITextComponent> tooltip = TOOLTIP_CACHE.get(this, value, 0, () -> getTooltip(value));
 			Minecraft minecraft = Minecraft.getInstance();
 			FontRenderer fontRenderer = ingredientRenderer.getFontRenderer(minecraft, value);
-			if (value instanceof ItemStack) {
-				//noinspection unchecked
-				Collection<ItemStack> itemStacks = (Collection<ItemStack>) this.allIngredients;
-				ResourceLocation tagEquivalent = getTagEquivalent(itemStacks);
-				if (tagEquivalent != null) {
-					final TranslationTextComponent acceptsAny = new TranslationTextComponent("jei.tooltip.recipe.tag", tagEquivalent);
-					tooltip.add(acceptsAny.mergeStyle(TextFormatting.GRAY));
-				}
-			}
 			TooltipRenderer.drawHoveringText(value, tooltip, xOffset + mouseX, yOffset + mouseY, fontRenderer, matrixStack);
 
 			RenderSystem.enableDepthTest();
@@ -242,6 +261,25 @@ public class GuiIngredient<T> extends AbstractGui implements IGuiIngredient<T> {
 		}
 	}
 
+	private List<ITextComponent> getTooltip(T value) {
+		IModIdHelper modIdHelper = Internal.getHelpers().getModIdHelper();
+		List<ITextComponent> tooltip = IngredientRenderHelper.getIngredientTooltipSafe(value, ingredientRenderer, ingredientHelper, modIdHelper);
+		for (ITooltipCallback<T> tooltipCallback : this.tooltipCallbacks) {
+			tooltipCallback.onTooltip(slotIndex, input, value, tooltip);
+		}
+
+		if (value instanceof ItemStack) {
+			//noinspection unchecked
+			Collection<ItemStack> itemStacks = (Collection<ItemStack>) this.allIngredients;
+			ResourceLocation tagEquivalent = getTagEquivalent(itemStacks);
+			if (tagEquivalent != null) {
+				final TranslationTextComponent acceptsAny = new TranslationTextComponent("jei.tooltip.recipe.tag", tagEquivalent);
+				tooltip.add(acceptsAny.mergeStyle(TextFormatting.GRAY));
+			}
+		}
+		return tooltip;
+	}
+
 	@Nullable
 	private static ResourceLocation getTagEquivalent(Collection<ItemStack> itemStacks) {
 		if (itemStacks.size() < 2) {
@@ -271,4 +309,25 @@ public class GuiIngredient<T> extends AbstractGui implements IGuiIngredient<T> {
 	public boolean isMode(IFocus.Mode mode) {
 		return (input && mode == IFocus.Mode.INPUT) || (!input && mode == IFocus.Mode.OUTPUT);
 	}
+
+	private static final class VisibleIngredients<T> {
+		private final WeakReference<IngredientFilter> ingredientFilter;
+		private final int hiddenStateGeneration;
+		/**
+		 * Null when all of the ingredients are hidden, then they are all shown.
+		 */
+		@Nullable
+		private final List<T> visible;
+
+		public VisibleIngredients(IngredientFilter ingredientFilter, @Nullable List<T> visible) {
+			this.ingredientFilter = new WeakReference<>(ingredientFilter);
+			this.hiddenStateGeneration = ingredientFilter.getHiddenStateGeneration();
+			this.visible = visible;
+		}
+
+		public boolean isValid(IngredientFilter ingredientFilter) {
+			return this.ingredientFilter.get() == ingredientFilter &&
+				this.hiddenStateGeneration == ingredientFilter.getHiddenStateGeneration();
+		}
+	}
 }
@@ -3,6 +3,7 @@ package mezz.jei.gui.ingredients;
 import com.mojang.blaze3d.matrix.MatrixStack;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -25,6 +26,7 @@ import mezz.jei.api.recipe.IFocus;
 import mezz.jei.gui.Focus;
 import mezz.jei.ingredients.IngredientManager;
 import mezz.jei.util.ErrorUtil;
+import mezz.jei.util.MathUtil;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -34,6 +36,19 @@ public class GuiIngredientGroup<T> implements IGuiIngredientGroup<T> {
 	private final Map<Integer, GuiIngredient<T>> guiIngredients = new HashMap<>();
 	private final Set<Integer> inputSlots = new HashSet<>();
 	private final Set<Integer> outputSlots = new HashSet<>();
+	/**
+	 * Slot indexes in ascending order, kept sorted as slots are initialized.
+	 */
+	private int[] sortedSlots = new int[0];
+	/**
+	 * The ingredient of each slot in {@link #sortedSlots}, at the same position.
+	 */
+	private final List<GuiIngredient<T>> sortedIngredients = new ArrayList<>();
+	/**
+	 * The area covered by all of the slots, so hover checks can skip the slots when the mouse is not near them.
+	 */
+	@Nullable
+	private Rectangle2d bounds;
 	private final IIngredientHelper<T> ingredientHelper;
 	private final IIngredientRenderer<T> ingredientRenderer;
 	private final IIngredientType<T> ingredientType;
@@ -69,9 +84,25 @@ public class GuiIngredientGroup<T> implements IGuiIngredientGroup<T> {
 		guiIngredients.put(slotIndex, guiIngredient);
 		if (input) {
 			inputSlots.add(slotIndex);
+			outputSlots.remove(slotIndex);
 		} else {
 			outputSlots.add(slotIndex);
+			inputSlots.remove(slotIndex);
+		}
+
+		int position = Arrays.binarySearch(sortedSlots, slotIndex);
+		if (position >= 0) {
+			sortedIngredients.set(position, guiIngredient);
+		} else {
+			position = -(position + 1);
+			int[] slots = new int[sortedSlots.length + 1];
+			System.arraycopy(sortedSlots, 0, slots, 0, position);
+			slots[position] = slotIndex;
+			System.arraycopy(sortedSlots, position, slots, position + 1, sortedSlots.length - position);
+			sortedSlots = slots;
+			sortedIngredients.add(position, guiIngredient);
 		}
+		bounds = bounds == null ? rect : MathUtil.union(bounds, rect);
 	}
 
 	@Override
@@ -81,20 +112,18 @@ public class GuiIngredientGroup<T> implements IGuiIngredientGroup<T> {
 		int inputIndex = 0;
 		int outputIndex = 0;
 
-		List<Integer> slots = new ArrayList<>(guiIngredients.keySet());
-		Collections.sort(slots);
-		for (Integer slot : slots) {
-			if (inputSlots.contains(slot)) {
+		for (GuiIngredient<T> guiIngredient : sortedIngredients) {
+			if (guiIngredient.isInput()) {
 				if (inputIndex < inputs.size()) {
 					List<T> input = inputs.get(inputIndex);
 					inputIndex++;
-					set(slot, input);
+					set(guiIngredient, input);
 				}
 			} else {
 				if (outputIndex < outputs.size()) {
 					List<T> output = outputs.get(outputIndex);
 					outputIndex++;
-					set(slot, output);
+					set(guiIngredient, output);
 				}
 			}
 		}
@@ -102,6 +131,11 @@ public class GuiIngredientGroup<T> implements IGuiIngredientGroup<T> {
 
 	@Override
 	public void set(int slotIndex, @Nullable List<T> ingredients) {
+		GuiIngredient<T> guiIngredient = guiIngredients.get(slotIndex);
+		set(guiIngredient, ingredients);
+	}
+
+	private void set(GuiIngredient<T> guiIngredient, @Nullable List<T> ingredients) {
 		// Sanitize API input
 		if (ingredients != null) {
 			for (T ingredient : ingredients) {
@@ -112,8 +146,6 @@ public class GuiIngredientGroup<T> implements IGuiIngredientGroup<T> {
 				}
 			}
 		}
-		GuiIngredient<T> guiIngredient = guiIngredients.get(slotIndex);
-
 		IFocus.Mode ingredientMode = guiIngredient.isInput() ? IFocus.Mode.INPUT : IFocus.Mode.OUTPUT;
 		if (focus == null || focus.getMode() == ingredientMode) {
 			guiIngredient.set(ingredients, focus);
@@ -144,20 +176,27 @@ public class GuiIngredientGroup<T> implements IGuiIngredientGroup<T> {
 		return guiIngredients;
 	}
 
+	private boolean isMouseInBounds(int xOffset, int yOffset, double mouseX, double mouseY) {
+		return bounds != null && MathUtil.contains(bounds, mouseX - xOffset, mouseY - yOffset);
+	}
+
 	@Nullable
 	public GuiIngredient<T> getHoveredIngredient(int xOffset, int yOffset, double mouseX, double mouseY) {
-		for (GuiIngredient<T> ingredient : guiIngredients.values()) {
-			if (ingredient.isMouseOver(xOffset, yOffset, mouseX, mouseY)) {
-				return ingredient;
+		if (isMouseInBounds(xOffset, yOffset, mouseX, mouseY)) {
+			for (GuiIngredient<T> ingredient : sortedIngredients) {
+				if (ingredient.isMouseOver(xOffset, yOffset, mouseX, mouseY)) {
+					return ingredient;
+				}
 			}
 		}
 		return null;
 	}
 
 	public void draw(MatrixStack matrixStack, int xOffset, int yOffset, int highlightColor, int mouseX, int mouseY) {
-		for (GuiIngredient<T> ingredient : guiIngredients.values()) {
+		boolean mouseInBounds = isMouseInBounds(xOffset, yOffset, mouseX, mouseY);
+		for (GuiIngredient<T> ingredient : sortedIngredients) {
 			ingredient.draw(matrixStack, xOffset, yOffset);
-			if (ingredient.isMouseOver(xOffset, yOffset, mouseX, mouseY)) {
+			if (mouseInBounds && ingredient.isMouseOver(xOffset, yOffset, mouseX, mouseY)) {
 				ingredient.setTooltipCallbacks(tooltipCallbacks);
 				ingredient.drawHighlight(matrixStack, highlightColor, xOffset, yOffset);
 			}
@@ -5,6 +5,7 @@ import mezz.jei.api.recipe.IRecipeManager;
 import mezz.jei.api.recipe.category.IRecipeCategory;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.List;
 
 public class FocusedRecipes<T> {
@@ -12,7 +13,11 @@ public class FocusedRecipes<T> {
 	/**
 	 * List of recipes for the currently selected recipeClass
 	 */
-	private final List<T> recipes;
+	private List<T> recipes;
+	/**
+	 * The recipe manager may return a view of its own list, so it is only copied when a recipe has to be removed.
+	 */
+	private boolean copied;
 
 	public static <T> FocusedRecipes<T> create(@Nullable IFocus<?> focus, IRecipeManager recipeManager, IRecipeCategory<T> recipeCategory) {
 		final List<T> recipes;
@@ -36,4 +41,12 @@ public class FocusedRecipes<T> {
 	public List<T> getRecipes() {
 		return recipes;
 	}
+
+	public void removeRecipe(int index) {
+		if (!copied) {
+			recipes = new ArrayList<>(recipes);
+			copied = true;
+		}
+		recipes.remove(index);
+	}
 }
@@ -0,0 +1,125 @@
+package mezz.jei.gui.recipes;
+
+import javax.annotation.Nullable;
+import java.lang.ref.SoftReference;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+import mezz.jei.api.recipe.IRecipeManager;
+import mezz.jei.api.recipe.category.IRecipeCategory;
+import mezz.jei.gui.Focus;
+import mezz.jei.gui.ingredients.IngredientLookupState;
+import net.minecraft.util.ResourceLocation;
+
+/**
+ * The states that {@link RecipeGuiLogic#back()} returns to.
+ *
+ * Entries only describe a state by its focus, categories and position, and look up the recipes again when they are returned to.
+ * The most recent states are kept in soft references so that going back a few steps does not have to look anything up.
+ */
+final class RecipeGuiHistory {
+	private static final int CACHED_STATES = 3;
+
+	private final Deque<Entry> entries = new ArrayDeque<>();
+
+	/**
+	 * @param maxSize the oldest entries are dropped when there are more than this.
+	 */
+	public void push(IngredientLookupState state, int maxSize) {
+		if (maxSize <= 0) {
+			entries.clear();
+			return;
+		}
+		entries.addLast(new Entry(state));
+		while (entries.size() > maxSize) {
+			entries.pollFirst();
+		}
+		if (entries.size() > CACHED_STATES) {
+			Iterator<Entry> newestFirst = entries.descendingIterator();
+			for (int i = 0; i < CACHED_STATES; i++) {
+				newestFirst.next();
+			}
+			newestFirst.next().clearCachedState();
+		}
+	}
+
+	/**
+	 * @return the most recent state that still has visible recipe categories, or null if there is none.
+	 */
+	@Nullable
+	public IngredientLookupState pop(IRecipeManager recipeManager) {
+		while (!entries.isEmpty()) {
+			Entry entry = entries.pollLast();
+			IngredientLookupState state = entry.getState(recipeManager);
+			if (state != null) {
+				return state;
+			}
+		}
+		return null;
+	}
+
+	public void clear() {
+		entries.clear();
+	}
+
+	private static final class Entry {
+		@Nullable
+		private final Focus<?> focus;
+		private final ImmutableList<ResourceLocation> recipeCategoryUids;
+		private final ResourceLocation selectedCategoryUid;
+		private final int recipeIndex;
+		private final int recipesPerPage;
+		@Nullable
+		private SoftReference<IngredientLookupState> cachedState;
+
+		public Entry(IngredientLookupState state) {
+			this.focus = state.getFocus();
+			ImmutableList.Builder<ResourceLocation> recipeCategoryUids = ImmutableList.builder();
+			for (IRecipeCategory<?> recipeCategory : state.getRecipeCategories()) {
+				recipeCategoryUids.add(recipeCategory.getUid());
+			}
+			this.recipeCategoryUids = recipeCategoryUids.build();
+			this.selectedCategoryUid = this.recipeCategoryUids.get(state.getRecipeCategoryIndex());
+			this.recipeIndex = state.getRecipeIndex();
+			this.recipesPerPage = state.getRecipesPerPage();
+			this.cachedState = new SoftReference<>(state);
+		}
+
+		public void clearCachedState() {
+			this.cachedState = null;
+		}
+
+		@Nullable
+		public IngredientLookupState getState(IRecipeManager recipeManager) {
+			if (cachedState != null) {
+				IngredientLookupState state = cachedState.get();
+				if (state != null) {
+					return state;
+				}
+			}
+
+			List<IRecipeCategory<?>> recipeCategories = recipeManager.getRecipeCategories(recipeCategoryUids);
+			if (recipeCategories.isEmpty()) {
+				return null;
+			}
+			int recipeCategoryIndex = 0;
+			int recipeIndex = 0;
+			for (int i = 0; i < recipeCategories.size(); i++) {
+				if (recipeCategories.get(i).getUid().equals(selectedCategoryUid)) {
+					recipeCategoryIndex = i;
+					recipeIndex = this.recipeIndex;
+					break;
+				}
+			}
+			IngredientLookupState state = new IngredientLookupState(recipeManager, focus, recipeCategories, recipeCategoryIndex, recipeIndex);
+			state.setRecipesPerPage(recipesPerPage);
+			if (state.getRecipeIndex() >= state.getFocusedRecipes().getRecipes().size()) {
+				state.setRecipeIndex(0);
+			}
+			return state;
+		}
+	}
+}
@@ -7,6 +7,7 @@ import mezz.jei.api.recipe.IFocus;
 import mezz.jei.api.recipe.IRecipeManager;
 import mezz.jei.api.recipe.category.IRecipeCategory;
 import mezz.jei.api.recipe.transfer.IRecipeTransferHandler;
+import mezz.jei.config.IClientConfig;
 import mezz.jei.gui.Focus;
 import mezz.jei.gui.ingredients.IngredientLookupState;
 import mezz.jei.ingredients.IngredientManager;
@@ -20,7 +21,6 @@ import net.minecraft.util.ResourceLocation;
 import javax.annotation.Nonnegative;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Stack;
 
 public class RecipeGuiLogic implements IRecipeGuiLogic {
 	private final IRecipeManager recipeManager;
@@ -28,17 +28,19 @@ public class RecipeGuiLogic implements IRecipeGuiLogic {
 	private final IRecipeLogicStateListener stateListener;
 	private final IngredientManager ingredientManager;
 	private final IModIdHelper modIdHelper;
+	private final IClientConfig clientConfig;
 
 	private boolean initialState = true;
 	private IngredientLookupState state;
-	private final Stack<IngredientLookupState> history = new Stack<>();
+	private final RecipeGuiHistory history = new RecipeGuiHistory();
 
-	public RecipeGuiLogic(IRecipeManager recipeManager, RecipeTransferManager recipeTransferManager, IRecipeLogicStateListener stateListener, IngredientManager ingredientManager, IModIdHelper modIdHelper) {
+	public RecipeGuiLogic(IRecipeManager recipeManager, RecipeTransferManager recipeTransferManager, IRecipeLogicStateListener stateListener, IngredientManager ingredientManager, IModIdHelper modIdHelper, IClientConfig clientConfig) {
 		this.recipeManager = recipeManager;
 		this.recipeTransferManager = recipeTransferManager;
 		this.stateListener = stateListener;
 		this.ingredientManager = ingredientManager;
 		this.modIdHelper = modIdHelper;
+		this.clientConfig = clientConfig;
 		List<IRecipeCategory<?>> recipeCategories = recipeManager.getRecipeCategories();
 		this.state = new IngredientLookupState(recipeManager, null, recipeCategories, 0, 0);
 	}
@@ -55,7 +57,7 @@ public class RecipeGuiLogic implements IRecipeGuiLogic {
 		}
 
 		if (!initialState) {
-			history.push(this.state);
+			history.push(this.state, clientConfig.getMaxRecipeGuiHistorySize());
 		}
 
 		int recipeCategoryIndex = getRecipeCategoryIndexToShowFirst(recipeCategories);
@@ -86,19 +88,17 @@ public class RecipeGuiLogic implements IRecipeGuiLogic {
 
 	@Override
 	public boolean back() {
-		if (history.empty()) {
+		final IngredientLookupState state = history.pop(recipeManager);
+		if (state == null) {
 			return false;
 		}
-		final IngredientLookupState state = history.pop();
 		setState(state);
 		return true;
 	}
 
 	@Override
 	public void clearHistory() {
-		while (!history.empty()) {
-			history.pop();
-		}
+		history.clear();
 	}
 
 	private void setState(IngredientLookupState state) {
@@ -112,7 +112,7 @@ public class RecipeGuiLogic implements IRecipeGuiLogic {
 		IRecipeCategory<?> recipeCategory = getSelectedRecipeCategory();
 
 		if (!initialState) {
-			history.push(this.state);
+			history.push(this.state, clientConfig.getMaxRecipeGuiHistorySize());
 		}
 
 		final List<IRecipeCategory<?>> recipeCategories = recipeManager.getRecipeCategories();
@@ -131,7 +131,7 @@ public class RecipeGuiLogic implements IRecipeGuiLogic {
 		}
 
 		if (!initialState) {
-			history.push(this.state);
+			history.push(this.state, clientConfig.getMaxRecipeGuiHistorySize());
 		}
 
 		final IngredientLookupState state = new IngredientLookupState(recipeManager, null, recipeCategories, 0, 0);
@@ -186,7 +186,8 @@ public class RecipeGuiLogic implements IRecipeGuiLogic {
 			T recipe = recipes.get(recipeIndex);
 			RecipeLayout<T> recipeLayout = RecipeLayout.create(recipeWidgetIndex++, recipeCategory, recipe, state.getFocus(), modIdHelper, posX, recipePosY);
 			if (recipeLayout == null) {
-				recipes.remove(recipeIndex);
+				selectedRecipes.removeRecipe(recipeIndex);
+				recipes = selectedRecipes.getRecipes();
 				recipeManager.hideRecipe(recipe, recipeCategory.getUid());
 				recipeIndex--;
 			} else {
@@ -2,6 +2,8 @@ package mezz.jei.ingredients;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import mezz.jei.api.ingredients.subtypes.UidContext;
 import mezz.jei.config.IClientConfig;
@@ -19,6 +21,10 @@ import org.apache.commons.lang3.StringUtils;
 public class ForgeModIdHelper extends AbstractModIdHelper {
 	private final IClientConfig config;
 	private final ModIdFormattingConfig modIdFormattingConfig;
+	/**
+	 * The mod list does not change after loading, and this is looked up for every ingredient, possibly from several threads.
+	 */
+	private final Map<String, String> modNamesForModIds = new ConcurrentHashMap<>();
 
 	public ForgeModIdHelper(IClientConfig config, ModIdFormattingConfig modIdFormattingConfig) {
 		this.config = config;
@@ -27,6 +33,10 @@ public class ForgeModIdHelper extends AbstractModIdHelper {
 
 	@Override
 	public String getModNameForModId(String modId) {
+		return modNamesForModIds.computeIfAbsent(modId, ForgeModIdHelper::lookUpModNameForModId);
+	}
+
+	private static String lookUpModNameForModId(String modId) {
 		return ModList.get().getModContainerById(modId)
 			.map(modContainer -> modContainer.getModInfo().getDisplayName())
 			.orElse(StringUtils.capitalize(modId));
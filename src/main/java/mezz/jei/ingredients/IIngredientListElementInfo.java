@@ -1,5 +1,6 @@
 package mezz.jei.ingredients;
 
+import java.text.CollationKey;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
@@ -12,8 +13,15 @@ public interface IIngredientListElementInfo<V> {
 
 	String getName();
 
+	/**
+	 * @return a key for sorting by {@link #getName()} in the order of the language that was in use when the info was created.
+	 */
+	CollationKey getNameSortKey();
+
 	String getModNameForSorting();
 
+	String getDisplayModId();
+
 	Set<String> getModNameStrings();
 
 	List<String> getTooltipStrings(IIngredientFilterConfig config, IIngredientManager ingredientManager);
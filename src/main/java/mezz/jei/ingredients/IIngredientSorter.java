@@ -2,10 +2,21 @@ package mezz.jei.ingredients;
 
 import mezz.jei.api.runtime.IIngredientManager;
 
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
 
 public interface IIngredientSorter {
 	Comparator<IIngredientListElementInfo<?>> getComparator(IngredientFilter ingredientFilter, IIngredientManager ingredientManager);
 
+	/**
+	 * @return a new list with the elements in the order given by {@link #getComparator}.
+	 */
+	default List<IIngredientListElementInfo<?>> sort(IngredientFilter ingredientFilter, IIngredientManager ingredientManager, List<IIngredientListElementInfo<?>> elements) {
+		List<IIngredientListElementInfo<?>> sorted = new ArrayList<>(elements);
+		sorted.sort(getComparator(ingredientFilter, ingredientManager));
+		return sorted;
+	}
+
 	default void invalidateCache() {}
 }
@@ -1,10 +1,9 @@
 package mezz.jei.ingredients;
 
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableList;
 import it.unimi.dsi.fastutil.chars.Char2ObjectMap;
 import it.unimi.dsi.fastutil.chars.Char2ObjectOpenHashMap;
-import it.unimi.dsi.fastutil.ints.IntIterator;
-import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
 import it.unimi.dsi.fastutil.ints.IntSet;
 import mezz.jei.api.helpers.IModIdHelper;
 import mezz.jei.api.ingredients.IIngredientHelper;
@@ -24,25 +23,33 @@ import mezz.jei.search.ElementSearch;
 import mezz.jei.search.ElementSearchLowMem;
 import mezz.jei.search.IElementSearch;
 import mezz.jei.search.PrefixInfo;
-import mezz.jei.util.Translator;
 import net.minecraft.util.NonNullList;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
-import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public class IngredientFilter implements IIngredientGridSource {
+	private static final Logger LOGGER = LogManager.getLogger();
 	private static final Pattern QUOTE_PATTERN = Pattern.compile("\"");
 	private static final Pattern FILTER_SPLIT_PATTERN = Pattern.compile("(-?\".*?(?:\"|$)|\\S+)");
+	/**
+	 * Number of ingredients {@link #buildIngredientList} checks for visibility between looking at the deadline.
+	 */
+	private static final int BUILD_STEP_SIZE = 1024;
 
 	private final IngredientBlacklistInternal blacklist;
 	private final IEditModeConfig editModeConfig;
@@ -52,10 +59,33 @@ public class IngredientFilter implements IIngredientGridSource {
 	private final IElementSearch elementSearch;
 	private final Char2ObjectMap<PrefixInfo> prefixInfos = new Char2ObjectOpenHashMap<>();
 	private final Set<String> modNamesForSorting = new HashSet<>();
+	/**
+	 * Elements indexed by their ingredient uid and by their wildcard id.
+	 * Uids are not unique between ingredient types, so lookups must check the ingredient class.
+	 */
+	private final Map<String, List<IIngredientListElementInfo<?>>> elementsByUid = new HashMap<>();
+	private final Map<String, List<IIngredientListElementInfo<?>>> elementsByWildcardId = new HashMap<>();
+	/**
+	 * Config blacklist uids that changed since the hidden states were last updated.
+	 */
+	private final Set<String> changedBlacklistUids = new HashSet<>();
+
+	/**
+	 * Incremented when ingredients are added, removed, hidden, or shown.
+	 */
+	private int hiddenStateGeneration;
 
 	@Nullable
 	private String filterCached;
 	private List<IIngredientListElement<?>> ingredientListCached = Collections.emptyList();
+	/**
+	 * State of {@link #buildIngredientList}, which builds the ingredient list over several calls.
+	 */
+	@Nullable
+	private String filterBuilding;
+	private int filterBuildingGeneration;
+	private int filterBuildingIndex;
+	private List<IIngredientListElementInfo<?>> ingredientListBuilding = Collections.emptyList();
 	private final List<IIngredientGridSource.Listener> listeners = new ArrayList<>();
 
 	public IngredientFilter(
@@ -79,12 +109,12 @@ public class IngredientFilter implements IIngredientGridSource {
 			this.elementSearch = new ElementSearch();
 		}
 
-		this.prefixInfos.put('@', new PrefixInfo(config::getModNameSearchMode, IIngredientListElementInfo::getModNameStrings));
+		this.prefixInfos.put('@', new PrefixInfo(config::getModNameSearchMode, IIngredientListElementInfo::getModNameStrings, true));
 		this.prefixInfos.put('#', new PrefixInfo(config::getTooltipSearchMode, e -> e.getTooltipStrings(config, ingredientManager)));
 		this.prefixInfos.put('$', new PrefixInfo(config::getTagSearchMode, e -> e.getTagStrings(ingredientManager)));
 		this.prefixInfos.put('%', new PrefixInfo(config::getCreativeTabSearchMode, e -> e.getCreativeTabsStrings(ingredientManager)));
 		this.prefixInfos.put('^', new PrefixInfo(config::getColorSearchMode, e -> e.getColorStrings(ingredientManager)));
-		this.prefixInfos.put('&', new PrefixInfo(config::getResourceIdSearchMode, element -> Collections.singleton(element.getResourceId())));
+		this.prefixInfos.put('&', new PrefixInfo(config::getResourceIdSearchMode, element -> Collections.singleton(element.getResourceId()), true));
 
 		for (PrefixInfo prefixInfo : this.prefixInfos.values()) {
 			this.elementSearch.registerPrefix(prefixInfo);
@@ -92,7 +122,7 @@ public class IngredientFilter implements IIngredientGridSource {
 
 		EventBusHelper.addListener(EditModeToggleEvent.class, editModeToggleEvent -> {
 			this.filterCached = null;
-			updateHidden();
+			updateHiddenForChangedBlacklist();
 		});
 
 		EventBusHelper.addListener(PlayerJoinedWorldEvent.class, playerJoinedWorldEvent -> {
@@ -100,73 +130,133 @@ public class IngredientFilter implements IIngredientGridSource {
 			updateHidden();
 		});
 
-		List<IIngredientListElementInfo<?>> ingredientInfo = ingredients.stream()
+		// parallelStream keeps the order of the elements, so the index built from them is the same every time
+		List<IIngredientListElementInfo<?>> ingredientInfo = ingredients.parallelStream()
 			.map(i -> IngredientListElementInfo.create(i, ingredientManager, modIdHelper))
+			.filter(Objects::nonNull)
 			.collect(Collectors.toList());
 
-		for (IIngredientListElementInfo<?> element : ingredientInfo) {
-			addIngredient(element);
+		addIngredients(ingredientInfo);
+	}
+
+	private void addIngredients(List<IIngredientListElementInfo<?>> infos) {
+		for (IIngredientListElementInfo<?> info : infos) {
+			indexIngredient(info);
 		}
+		this.elementSearch.addAll(infos);
+		invalidateCache();
 	}
 
 	public <V> void addIngredient(IIngredientListElementInfo<V> info) {
+		indexIngredient(info);
+		this.elementSearch.add(info);
+		invalidateCache();
+	}
+
+	/**
+	 * @return a number that changes whenever ingredients are added, removed, hidden, or shown,
+	 * so that the results of {@link IngredientManager#isIngredientVisible} can be cached until then.
+	 */
+	public int getHiddenStateGeneration() {
+		return hiddenStateGeneration;
+	}
+
+	private <V> void indexIngredient(IIngredientListElementInfo<V> info) {
 		IIngredientListElement<V> element = info.getElement();
 		updateHiddenState(element);
 
-		this.elementSearch.add(info);
+		V ingredient = element.getIngredient();
+		IIngredientHelper<V> ingredientHelper = ingredientManager.getIngredientHelper(ingredient);
+		String uid = ingredientHelper.getUniqueId(ingredient, UidContext.Ingredient);
+		this.elementsByUid.computeIfAbsent(uid, k -> new ArrayList<>(1)).add(info);
+		String wildcardId = ingredientHelper.getWildcardId(ingredient);
+		this.elementsByWildcardId.computeIfAbsent(wildcardId, k -> new ArrayList<>(1)).add(info);
 
 		String modNameForSorting = info.getModNameForSorting();
 		if (this.modNamesForSorting.add(modNameForSorting)) {
 			this.sorter.invalidateCache();
 		}
-
-		invalidateCache();
 	}
 
 	public void invalidateCache() {
+		this.hiddenStateGeneration++;
 		this.filterCached = null;
 	}
 
 	public <V> List<IIngredientListElementInfo<V>> findMatchingElements(IIngredientHelper<V> ingredientHelper, V ingredient) {
 		final String ingredientUid = ingredientHelper.getUniqueId(ingredient, UidContext.Ingredient);
-		final String displayName = ingredientHelper.getDisplayName(ingredient);
-		@SuppressWarnings("unchecked") final Class<? extends V> ingredientClass = (Class<? extends V>) ingredient.getClass();
+		return getIndexedElements(this.elementsByUid, ingredientUid, ingredient);
+	}
+
+	/**
+	 * @return all elements with the same wildcard id as the given ingredient.
+	 */
+	public <V> List<IIngredientListElementInfo<V>> getWildcardMatches(V ingredient, IIngredientHelper<V> ingredientHelper) {
+		final String wildcardId = ingredientHelper.getWildcardId(ingredient);
+		return getIndexedElements(this.elementsByWildcardId, wildcardId, ingredient);
+	}
 
-		final List<IIngredientListElementInfo<V>> matchingElements = new ArrayList<>();
-		final IntSet matchingIndexes = this.elementSearch.getSearchResults(Translator.toLowercaseWithLocale(displayName), PrefixInfo.NO_PREFIX);
-		if (matchingIndexes == null) {
-			return matchingElements;
+	private static <V> List<IIngredientListElementInfo<V>> getIndexedElements(Map<String, List<IIngredientListElementInfo<?>>> index, String key, V ingredient) {
+		List<IIngredientListElementInfo<?>> indexedElements = index.get(key);
+		if (indexedElements == null) {
+			return new ArrayList<>();
 		}
-		final IntIterator iterator = matchingIndexes.iterator();
-		while (iterator.hasNext()) {
-			int index = iterator.nextInt();
-			IIngredientListElementInfo<?> matchingElementInfo = this.elementSearch.get(index);
-			Object matchingIngredient = matchingElementInfo.getElement().getIngredient();
+		@SuppressWarnings("unchecked") final Class<? extends V> ingredientClass = (Class<? extends V>) ingredient.getClass();
+		final List<IIngredientListElementInfo<V>> matchingElements = new ArrayList<>(indexedElements.size());
+		for (IIngredientListElementInfo<?> indexedElement : indexedElements) {
+			Object matchingIngredient = indexedElement.getElement().getIngredient();
 			if (ingredientClass.isInstance(matchingIngredient)) {
-				V castMatchingIngredient = ingredientClass.cast(matchingIngredient);
-				String matchingUid = ingredientHelper.getUniqueId(castMatchingIngredient, UidContext.Ingredient);
-				if (ingredientUid.equals(matchingUid)) {
-					@SuppressWarnings("unchecked")
-					IIngredientListElementInfo<V> matchingElementInfoCast = (IIngredientListElementInfo<V>) matchingElementInfo;
-					matchingElements.add(matchingElementInfoCast);
-				}
+				@SuppressWarnings("unchecked")
+				IIngredientListElementInfo<V> matchingElementInfoCast = (IIngredientListElementInfo<V>) indexedElement;
+				matchingElements.add(matchingElementInfoCast);
 			}
 		}
 		return matchingElements;
 	}
 
+	public List<IIngredientListElementInfo<?>> getElementsFromMod(String modId) {
+		return this.elementSearch.getAllIngredients().stream()
+			.filter(info -> modId.equals(info.getDisplayModId()))
+			.collect(Collectors.toList());
+	}
+
 	public void modesChanged() {
 		this.elementSearch.start();
 		this.filterCached = null;
 	}
 
 	public void updateHidden() {
+		this.changedBlacklistUids.clear();
 		for (IIngredientListElementInfo<?> info : this.elementSearch.getAllIngredients()) {
 			IIngredientListElement<?> element = info.getElement();
 			updateHiddenState(element);
 		}
 	}
 
+	/**
+	 * Called when uids are added to or removed from the config blacklist.
+	 * The affected elements are updated the next time edit mode is toggled.
+	 */
+	public void onConfigBlacklistChanged(Collection<String> uids) {
+		this.changedBlacklistUids.addAll(uids);
+	}
+
+	private void updateHiddenForChangedBlacklist() {
+		for (String uid : this.changedBlacklistUids) {
+			updateHiddenStates(this.elementsByUid.get(uid));
+			updateHiddenStates(this.elementsByWildcardId.get(uid));
+		}
+		this.changedBlacklistUids.clear();
+	}
+
+	private void updateHiddenStates(@Nullable List<IIngredientListElementInfo<?>> infos) {
+		if (infos != null) {
+			for (IIngredientListElementInfo<?> info : infos) {
+				updateHiddenState(info.getElement());
+			}
+		}
+	}
+
 	public <V> void updateHiddenState(IIngredientListElement<V> element) {
 		V ingredient = element.getIngredient();
 		IIngredientHelper<V> ingredientHelper = ingredientManager.getIngredientHelper(ingredient);
@@ -175,6 +265,7 @@ public class IngredientFilter implements IIngredientGridSource {
 			(editModeConfig.isEditModeEnabled() || !editModeConfig.isIngredientOnConfigBlacklist(ingredient, ingredientHelper));
 		if (element.isVisible() != visible) {
 			element.setVisible(visible);
+			this.hiddenStateGeneration++;
 			this.filterCached = null;
 		}
 	}
@@ -184,15 +275,67 @@ public class IngredientFilter implements IIngredientGridSource {
 		filterText = filterText.toLowerCase();
 		if (!filterText.equals(filterCached)) {
 			List<IIngredientListElementInfo<?>> ingredientList = getIngredientListUncached(filterText);
-			ingredientListCached = ingredientList.stream()
-				.sorted(sorter.getComparator(this, this.ingredientManager))
-				.map(IIngredientListElementInfo::getElement)
-				.collect(Collectors.toList());
-			filterCached = filterText;
+			sortIngredientList(filterText, ingredientList);
 		}
 		return ingredientListCached;
 	}
 
+	/**
+	 * Does the same work as {@link #getIngredientList} in steps, stopping once the deadline has passed.
+	 * Finding the visible ingredients for an empty filter is split into steps, and sorting them is done in a step of its own.
+	 *
+	 * @return true once the ingredient list for the filter text is cached.
+	 */
+	public boolean buildIngredientList(String filterText, long deadlineNanos) {
+		filterText = filterText.toLowerCase();
+		if (filterText.equals(filterCached)) {
+			return true;
+		}
+		if (!filterText.equals(filterBuilding) || filterBuildingGeneration != hiddenStateGeneration) {
+			filterBuilding = filterText;
+			filterBuildingGeneration = hiddenStateGeneration;
+			filterBuildingIndex = 0;
+			if (filterText.isEmpty()) {
+				ingredientListBuilding = new ArrayList<>();
+			} else {
+				ingredientListBuilding = getIngredientListUncached(filterText);
+			}
+		}
+
+		if (filterText.isEmpty()) {
+			List<IIngredientListElementInfo<?>> allIngredients = this.elementSearch.getAllIngredients();
+			while (filterBuildingIndex < allIngredients.size()) {
+				if (System.nanoTime() >= deadlineNanos) {
+					return false;
+				}
+				int end = Math.min(filterBuildingIndex + BUILD_STEP_SIZE, allIngredients.size());
+				for (; filterBuildingIndex < end; filterBuildingIndex++) {
+					IIngredientListElementInfo<?> info = allIngredients.get(filterBuildingIndex);
+					if (info.getElement().isVisible()) {
+						ingredientListBuilding.add(info);
+					}
+				}
+			}
+		}
+
+		if (System.nanoTime() >= deadlineNanos) {
+			return false;
+		}
+		sortIngredientList(filterText, ingredientListBuilding);
+		filterBuilding = null;
+		ingredientListBuilding = Collections.emptyList();
+		return true;
+	}
+
+	private void sortIngredientList(String filterText, List<IIngredientListElementInfo<?>> ingredientList) {
+		Stopwatch sortTime = Stopwatch.createStarted();
+		ingredientListCached = sorter.sort(this, this.ingredientManager, ingredientList).stream()
+			.map(IIngredientListElementInfo::getElement)
+			.collect(Collectors.toList());
+		LOGGER.debug("Sorted {} ingredients in {}", ingredientListCached.size(), sortTime);
+		filterCached = filterText;
+	}
+
 	public Set<String> getModNamesForSorting() {
 		return Collections.unmodifiableSet(this.modNamesForSorting);
 	}
@@ -246,59 +389,6 @@ public class IngredientFilter implements IIngredientGridSource {
 		return matchingIngredients;
 	}
 
-	/**
-	 * Scans up and down the element list to find wildcard matches that touch the given element.
-	 */
-	public <T> List<IIngredientListElementInfo<T>> getMatches(T ingredient, IIngredientHelper<T> ingredientHelper, Function<T, String> uidFunction) {
-		final String uid = uidFunction.apply(ingredient);
-		@SuppressWarnings("unchecked")
-		Class<? extends T> ingredientClass = (Class<? extends T>) ingredient.getClass();
-		List<IIngredientListElementInfo<T>> matchingElements = findMatchingElements(ingredientHelper, ingredient);
-		IntSet matchingIndexes = new IntOpenHashSet(50);
-		IntSet startingIndexes = new IntOpenHashSet(matchingElements.size());
-		for (IIngredientListElementInfo<?> matchingElement : matchingElements) {
-			int index = this.elementSearch.indexOf(matchingElement);
-			startingIndexes.add(index);
-			matchingIndexes.add(index);
-		}
-
-		IntIterator iterator = startingIndexes.iterator();
-		while (iterator.hasNext()) {
-			int startingIndex = iterator.nextInt();
-			for (int i = startingIndex - 1; i >= 0 && !matchingIndexes.contains(i); i--) {
-				IIngredientListElementInfo<?> info = this.elementSearch.get(i);
-				Object elementIngredient = info.getElement().getIngredient();
-				if (elementIngredient.getClass() != ingredientClass) {
-					break;
-				}
-				String elementWildcardId = uidFunction.apply(ingredientClass.cast(elementIngredient));
-				if (!uid.equals(elementWildcardId)) {
-					break;
-				}
-				matchingIndexes.add(i);
-				@SuppressWarnings("unchecked")
-				IIngredientListElementInfo<T> castInfo = (IIngredientListElementInfo<T>) info;
-				matchingElements.add(castInfo);
-			}
-			for (int i = startingIndex + 1; i < this.elementSearch.size() && !matchingIndexes.contains(i); i++) {
-				IIngredientListElementInfo<?> info = this.elementSearch.get(i);
-				Object elementIngredient = info.getElement().getIngredient();
-				if (elementIngredient.getClass() != ingredientClass) {
-					break;
-				}
-				String elementWildcardId = uidFunction.apply(ingredientClass.cast(elementIngredient));
-				if (!uid.equals(elementWildcardId)) {
-					break;
-				}
-				matchingIndexes.add(i);
-				@SuppressWarnings("unchecked")
-				IIngredientListElementInfo<T> castElement = (IIngredientListElementInfo<T>) info;
-				matchingElements.add(castElement);
-			}
-		}
-		return matchingElements;
-	}
-
 	@Nullable
 	private IntSet getElements(String filterText) {
 		Matcher filterMatcher = FILTER_SPLIT_PATTERN.matcher(filterText);
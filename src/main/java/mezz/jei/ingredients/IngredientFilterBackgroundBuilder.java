@@ -1,24 +1,27 @@
 package mezz.jei.ingredients;
 
 import mezz.jei.config.SearchMode;
-import mezz.jei.events.EventBusHelper;
+import mezz.jei.scheduler.FrameTaskScheduler;
+import mezz.jei.scheduler.TaskPriority;
 import mezz.jei.search.PrefixInfo;
 import mezz.jei.search.suffixtree.GeneralizedSuffixTree;
-import net.minecraft.client.Minecraft;
 import net.minecraft.util.NonNullList;
-import net.minecraftforge.event.TickEvent;
-import net.minecraftforge.fml.LogicalSide;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Consumer;
+import java.util.concurrent.TimeUnit;
 
 public class IngredientFilterBackgroundBuilder {
+	/**
+	 * How long to build the search trees for when starting, before continuing in the background.
+	 */
+	private static final long INITIAL_RUN_NANOS = TimeUnit.SECONDS.toNanos(10);
+
 	private final Map<PrefixInfo, PrefixedSearchable<GeneralizedSuffixTree>> prefixedSearchTrees;
 	private final NonNullList<IIngredientListElementInfo<?>> elementList;
-	private final Consumer<TickEvent.ClientTickEvent> onTickHandler;
+	private boolean scheduled;
 
 	public IngredientFilterBackgroundBuilder(
 		Map<PrefixInfo, PrefixedSearchable<GeneralizedSuffixTree>> prefixedSearchTrees,
@@ -26,28 +29,25 @@ public class IngredientFilterBackgroundBuilder {
 	) {
 		this.prefixedSearchTrees = prefixedSearchTrees;
 		this.elementList = elementList;
-		this.onTickHandler = this::onClientTick;
 	}
 
 	public void start() {
-		boolean finished = run(10000);
-		if (!finished) {
-			EventBusHelper.addListener(TickEvent.ClientTickEvent.class, this.onTickHandler);
+		boolean finished = run(System.nanoTime() + INITIAL_RUN_NANOS);
+		if (!finished && !scheduled) {
+			scheduled = true;
+			FrameTaskScheduler.getInstance().schedule("Search index", TaskPriority.NORMAL, this::runScheduled);
 		}
 	}
 
-	private void onClientTick(TickEvent.ClientTickEvent event) {
-		if (event.side == LogicalSide.CLIENT && Minecraft.getInstance().player != null) {
-			boolean finished = run(20);
-			if (!finished) {
-				return;
-			}
+	private boolean runScheduled(long deadlineNanos) {
+		boolean finished = run(deadlineNanos);
+		if (finished) {
+			scheduled = false;
 		}
-		EventBusHelper.removeListener(this.onTickHandler);
+		return finished;
 	}
 
-	private boolean run(final int timeoutMs) {
-		final long startTime = System.currentTimeMillis();
+	private boolean run(final long deadlineNanos) {
 		List<PrefixedSearchable<GeneralizedSuffixTree>> activeTrees = new ArrayList<>();
 		int startIndex = Integer.MAX_VALUE;
 		for (PrefixedSearchable<GeneralizedSuffixTree> prefixedTree : this.prefixedSearchTrees.values()) {
@@ -82,7 +82,7 @@ public class IngredientFilterBackgroundBuilder {
 					}
 				}
 			}
-			if (System.currentTimeMillis() - startTime >= timeoutMs) {
+			if (System.nanoTime() >= deadlineNanos) {
 				return false;
 			}
 		}
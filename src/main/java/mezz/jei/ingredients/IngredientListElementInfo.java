@@ -1,6 +1,8 @@
 package mezz.jei.ingredients;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import mezz.jei.api.helpers.IModIdHelper;
 import mezz.jei.api.ingredients.IIngredientHelper;
 import mezz.jei.api.ingredients.IIngredientRenderer;
@@ -13,23 +15,35 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import javax.annotation.Nullable;
-import java.util.ArrayList;
+import java.text.CollationKey;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public class IngredientListElementInfo<V> implements IIngredientListElementInfo<V> {
 	private static final Logger LOGGER = LogManager.getLogger();
 	private static final Pattern SPACE_PATTERN = Pattern.compile("\\s");
+	/**
+	 * Mod ids and mod names are shared by many elements,
+	 * so each element refers to one shared copy of them instead of holding its own.
+	 */
+	private static final Interner<String> STRING_POOL = Interners.newWeakInterner();
+	private static final Map<List<String>, Set<String>> MOD_NAME_STRINGS = new ConcurrentHashMap<>();
 
 	private final IIngredientListElement<V> element;
-	private final String displayName;
+	private final String name;
+	private final CollationKey nameSortKey;
 	private final List<String> modIds;
-	private final List<String> modNames;
+	private final String modNameForSorting;
+	private final Set<String> modNameStrings;
 	private final String resourceId;
 
 	@Nullable
@@ -52,39 +66,53 @@ public class IngredientListElementInfo<V> implements IIngredientListElementInfo<
 	protected IngredientListElementInfo(IIngredientListElement<V> element, IIngredientHelper<V> ingredientHelper, IModIdHelper modIdHelper) {
 		this.element = element;
 		V ingredient = element.getIngredient();
-		String displayModId = ingredientHelper.getDisplayModId(ingredient);
-		String modId = ingredientHelper.getModId(ingredient);
-		this.modIds = new ArrayList<>();
-		this.modIds.add(displayModId);
-		if (!modId.equals(displayModId)) {
-			this.modIds.add(modId);
+		String displayModId = STRING_POOL.intern(ingredientHelper.getDisplayModId(ingredient));
+		String modId = STRING_POOL.intern(ingredientHelper.getModId(ingredient));
+		if (modId.equals(displayModId)) {
+			this.modIds = Collections.singletonList(displayModId);
+		} else {
+			this.modIds = Arrays.asList(displayModId, modId);
 		}
-		this.modNames = this.modIds.stream()
-			.map(modIdHelper::getModNameForModId)
-			.collect(Collectors.toList());
-		this.displayName = IngredientInformation.getDisplayName(ingredient, ingredientHelper);
+		this.modNameForSorting = STRING_POOL.intern(modIdHelper.getModNameForModId(displayModId));
+		this.modNameStrings = MOD_NAME_STRINGS.computeIfAbsent(this.modIds, ids -> createModNameStrings(ids, modIdHelper));
+		String displayName = IngredientInformation.getDisplayName(ingredient, ingredientHelper);
+		this.name = Translator.toLowercaseWithLocale(displayName);
+		this.nameSortKey = Translator.getCollationKey(this.name);
 		this.resourceId = ingredientHelper.getResourceId(ingredient);
 	}
 
 	@Override
 	public String getName() {
-		return Translator.toLowercaseWithLocale(this.displayName);
+		return this.name;
+	}
+
+	@Override
+	public CollationKey getNameSortKey() {
+		return nameSortKey;
 	}
 
 	@Override
 	public String getModNameForSorting() {
-		return modNames.get(0);
+		return modNameForSorting;
+	}
+
+	@Override
+	public String getDisplayModId() {
+		return modIds.get(0);
 	}
 
 	@Override
 	public Set<String> getModNameStrings() {
+		return modNameStrings;
+	}
+
+	private static Set<String> createModNameStrings(List<String> modIds, IModIdHelper modIdHelper) {
 		Set<String> modNameStrings = new HashSet<>();
-		for (int i = 0; i < modIds.size(); i++) {
-			String modId = modIds.get(i);
-			String modName = modNames.get(i);
+		for (String modId : modIds) {
+			String modName = modIdHelper.getModNameForModId(modId);
 			addModNameStrings(modNameStrings, modId, modName);
 		}
-		return modNameStrings;
+		return Collections.unmodifiableSet(modNameStrings);
 	}
 
 	private static void addModNameStrings(Set<String> modNames, String modId, String modName) {
@@ -92,19 +120,17 @@ public class IngredientListElementInfo<V> implements IIngredientListElementInfo<
 		String modNameNoSpaces = SPACE_PATTERN.matcher(modNameLowercase).replaceAll("");
 		String modIdNoSpaces = SPACE_PATTERN.matcher(modId).replaceAll("");
 		modNames.add(modId);
-		modNames.add(modNameNoSpaces);
-		modNames.add(modIdNoSpaces);
+		modNames.add(STRING_POOL.intern(modNameNoSpaces));
+		modNames.add(STRING_POOL.intern(modIdNoSpaces));
 	}
 
 	@Override
 	public final List<String> getTooltipStrings(IIngredientFilterConfig config, IIngredientManager ingredientManager) {
-		String modName = this.modNames.get(0);
 		String modId = this.modIds.get(0);
-		String modNameLowercase = modName.toLowerCase(Locale.ENGLISH);
-		String displayNameLowercase = Translator.toLowercaseWithLocale(this.displayName);
+		String modNameLowercase = this.modNameForSorting.toLowerCase(Locale.ENGLISH);
 		V ingredient = element.getIngredient();
 		IIngredientRenderer<V> ingredientRenderer = ingredientManager.getIngredientRenderer(ingredient);
-		return IngredientInformation.getTooltipStrings(ingredient, ingredientRenderer, ImmutableSet.of(modId, modNameLowercase, displayNameLowercase, resourceId), config);
+		return IngredientInformation.getTooltipStrings(ingredient, ingredientRenderer, ImmutableSet.of(modId, modNameLowercase, this.name, resourceId), config);
 	}
 
 	@Override
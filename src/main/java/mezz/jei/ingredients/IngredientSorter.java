@@ -1,5 +1,6 @@
 package mezz.jei.ingredients;
 
+import com.google.common.collect.ImmutableList;
 import mezz.jei.api.ingredients.IIngredientType;
 import mezz.jei.api.runtime.IIngredientManager;
 import mezz.jei.config.IClientConfig;
@@ -8,28 +9,46 @@ import mezz.jei.config.sorting.ModNameSortingConfig;
 import mezz.jei.gui.ingredients.IIngredientListElement;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 
 public final class IngredientSorter implements IIngredientSorter {
 
-	private static final Comparator<IIngredientListElementInfo<?>> CREATIVE_MENU =
-		Comparator.comparingInt(o -> {
-			IIngredientListElement<?> element = o.getElement();
-			return element.getOrderIndex();
-		});
+	private static final ToIntFunction<IIngredientListElementInfo<?>> CREATIVE_MENU_INDEX = o -> {
+		IIngredientListElement<?> element = o.getElement();
+		return element.getOrderIndex();
+	};
 
 	private static final Comparator<IIngredientListElementInfo<?>> ALPHABETICAL =
-		Comparator.comparing(IIngredientListElementInfo::getName);
+		Comparator.comparing(IIngredientListElementInfo::getNameSortKey);
+
+	private static final List<IngredientSortStage> DEFAULT_STAGES = ImmutableList.of(
+		IngredientSortStage.MOD_NAME,
+		IngredientSortStage.INGREDIENT_TYPE,
+		IngredientSortStage.CREATIVE_MENU
+	);
+
+	/**
+	 * Sort keys are non-negative longs.
+	 */
+	private static final int MAX_KEY_BITS = 63;
 
 	private final IClientConfig clientConfig;
 	private final ModNameSortingConfig modNameSortingConfig;
 	private final IngredientTypeSortingConfig ingredientTypeSortingConfig;
 
+	@Nullable
+	private Map<IngredientSortStage, ToIntFunction<IIngredientListElementInfo<?>>> cachedStageRanks;
+	@Nullable
+	private Map<IngredientSortStage, Comparator<IIngredientListElementInfo<?>>> cachedStageComparators;
 	@Nullable
 	private Comparator<IIngredientListElementInfo<?>> cachedComparator;
 
@@ -42,41 +61,172 @@ public final class IngredientSorter implements IIngredientSorter {
 	@Override
 	public Comparator<IIngredientListElementInfo<?>> getComparator(IngredientFilter ingredientFilter, IIngredientManager ingredientManager) {
 		if (this.cachedComparator == null) {
-			Set<String> modNames = ingredientFilter.getModNamesForSorting();
-			Collection<IIngredientType<?>> ingredientTypes = ingredientManager.getRegisteredIngredientTypes();
+			Map<IngredientSortStage, Comparator<IIngredientListElementInfo<?>>> comparatorsForStages = getStageComparators(ingredientFilter, ingredientManager);
+			this.cachedComparator = getComparator(getStages(), comparatorsForStages);
+		}
+		return this.cachedComparator;
+	}
+
+	/**
+	 * Sorts by one packed long key per element for the stages with integer ranks,
+	 * and only uses the comparator for the stages after them, within runs of equal keys.
+	 *
+	 * Each key has the ranks of the leading integer stages in its high bits and the element's index in its low bits,
+	 * so the sort is stable like a comparator sort.
+	 */
+	@Override
+	public List<IIngredientListElementInfo<?>> sort(IngredientFilter ingredientFilter, IIngredientManager ingredientManager, List<IIngredientListElementInfo<?>> elements) {
+		final int size = elements.size();
+		final List<IngredientSortStage> stages = getStages();
+		final Map<IngredientSortStage, ToIntFunction<IIngredientListElementInfo<?>>> stageRanks = getStageRanks(ingredientFilter, ingredientManager);
+
+		final int indexBits = getBits(size - 1);
+		int keyBits = indexBits;
+		int packedStages = 0;
+		long[] keys = new long[size];
+		long[] ranks = new long[size];
+		for (IngredientSortStage stage : stages) {
+			ToIntFunction<IIngredientListElementInfo<?>> rankFunction = stageRanks.get(stage);
+			if (rankFunction == null) {
+				break;
+			}
+			long maxRank = getRanks(elements, rankFunction, ranks);
+			int rankBits = getBits(maxRank);
+			if (keyBits + rankBits > MAX_KEY_BITS) {
+				break;
+			}
+			for (int i = 0; i < size; i++) {
+				keys[i] = (keys[i] << rankBits) | ranks[i];
+			}
+			keyBits += rankBits;
+			packedStages++;
+		}
+		for (int i = 0; i < size; i++) {
+			keys[i] = (keys[i] << indexBits) | i;
+		}
+		Arrays.sort(keys);
+
+		final long indexMask = (1L << indexBits) - 1;
+		List<IIngredientListElementInfo<?>> sorted = new ArrayList<>(size);
+		for (long key : keys) {
+			sorted.add(elements.get((int) (key & indexMask)));
+		}
+
+		List<IngredientSortStage> remainingStages = stages.subList(packedStages, stages.size());
+		if (!remainingStages.isEmpty()) {
+			Comparator<IIngredientListElementInfo<?>> remaining = getComparator(remainingStages, getStageComparators(ingredientFilter, ingredientManager));
+			int start = 0;
+			for (int i = 1; i <= size; i++) {
+				if (i == size || (keys[i] >>> indexBits) != (keys[start] >>> indexBits)) {
+					if (i - start > 1) {
+						sorted.subList(start, i).sort(remaining);
+					}
+					start = i;
+				}
+			}
+		}
+		return sorted;
+	}
+
+	/**
+	 * Fills in the rank of each element, shifted so that the lowest rank is 0 and unknown values sort right after the known ones.
+	 *
+	 * @return the highest rank.
+	 */
+	private static long getRanks(List<IIngredientListElementInfo<?>> elements, ToIntFunction<IIngredientListElementInfo<?>> rankFunction, long[] ranks) {
+		long min = Long.MAX_VALUE;
+		long maxKnown = Long.MIN_VALUE;
+		for (int i = 0; i < ranks.length; i++) {
+			int rank = rankFunction.applyAsInt(elements.get(i));
+			ranks[i] = rank;
+			min = Math.min(min, rank);
+			if (rank != Integer.MAX_VALUE) {
+				maxKnown = Math.max(maxKnown, rank);
+			}
+		}
+		if (maxKnown == Long.MIN_VALUE) {
+			// no known values, or no elements
+			Arrays.fill(ranks, 0);
+			return 0;
+		}
+		long unknown = maxKnown + 1;
+		for (int i = 0; i < ranks.length; i++) {
+			if (ranks[i] == Integer.MAX_VALUE) {
+				ranks[i] = unknown;
+			}
+			ranks[i] -= min;
+		}
+		return unknown - min;
+	}
+
+	private static int getBits(long maxValue) {
+		if (maxValue <= 0) {
+			return 0;
+		}
+		return Long.SIZE - Long.numberOfLeadingZeros(maxValue);
+	}
 
-			Comparator<IIngredientListElementInfo<?>> modName = createModNameComparator(modNames);
-			Comparator<IIngredientListElementInfo<?>> ingredientType = createIngredientTypeComparator(ingredientTypes);
+	private List<IngredientSortStage> getStages() {
+		List<IngredientSortStage> ingredientSorterStages = this.clientConfig.getIngredientSorterStages();
+		if (ingredientSorterStages.isEmpty()) {
+			return DEFAULT_STAGES;
+		}
+		return ingredientSorterStages;
+	}
 
-			EnumMap<IngredientSortStage, Comparator<IIngredientListElementInfo<?>>> comparatorsForStages = new EnumMap<>(IngredientSortStage.class);
+	private static Comparator<IIngredientListElementInfo<?>> getComparator(List<IngredientSortStage> stages, Map<IngredientSortStage, Comparator<IIngredientListElementInfo<?>>> comparatorsForStages) {
+		Comparator<IIngredientListElementInfo<?>> comparator = comparatorsForStages.get(stages.get(0));
+		for (IngredientSortStage stage : stages.subList(1, stages.size())) {
+			comparator = comparator.thenComparing(comparatorsForStages.get(stage));
+		}
+		return comparator;
+	}
+
+	private Map<IngredientSortStage, Comparator<IIngredientListElementInfo<?>>> getStageComparators(IngredientFilter ingredientFilter, IIngredientManager ingredientManager) {
+		if (this.cachedStageComparators == null) {
+			Map<IngredientSortStage, Comparator<IIngredientListElementInfo<?>>> comparatorsForStages = new EnumMap<>(IngredientSortStage.class);
 			comparatorsForStages.put(IngredientSortStage.ALPHABETICAL, ALPHABETICAL);
-			comparatorsForStages.put(IngredientSortStage.CREATIVE_MENU, CREATIVE_MENU);
-			comparatorsForStages.put(IngredientSortStage.INGREDIENT_TYPE, ingredientType);
-			comparatorsForStages.put(IngredientSortStage.MOD_NAME, modName);
-
-			List<IngredientSortStage> ingredientSorterStages = this.clientConfig.getIngredientSorterStages();
-			this.cachedComparator =  ingredientSorterStages.stream()
-				.map(comparatorsForStages::get)
-				.reduce(Comparator::thenComparing)
-				.orElseGet(() -> modName.thenComparing(ingredientType).thenComparing(CREATIVE_MENU));
+			for (Map.Entry<IngredientSortStage, ToIntFunction<IIngredientListElementInfo<?>>> entry : getStageRanks(ingredientFilter, ingredientManager).entrySet()) {
+				comparatorsForStages.put(entry.getKey(), Comparator.comparingInt(entry.getValue()));
+			}
+			this.cachedStageComparators = comparatorsForStages;
 		}
-		return this.cachedComparator;
+		return this.cachedStageComparators;
+	}
+
+	/**
+	 * @return the rank functions for the stages that sort by an integer.
+	 */
+	private Map<IngredientSortStage, ToIntFunction<IIngredientListElementInfo<?>>> getStageRanks(IngredientFilter ingredientFilter, IIngredientManager ingredientManager) {
+		if (this.cachedStageRanks == null) {
+			Set<String> modNames = ingredientFilter.getModNamesForSorting();
+			Collection<IIngredientType<?>> ingredientTypes = ingredientManager.getRegisteredIngredientTypes();
+
+			Map<IngredientSortStage, ToIntFunction<IIngredientListElementInfo<?>>> ranksForStages = new EnumMap<>(IngredientSortStage.class);
+			ranksForStages.put(IngredientSortStage.CREATIVE_MENU, CREATIVE_MENU_INDEX);
+			ranksForStages.put(IngredientSortStage.INGREDIENT_TYPE, createIngredientTypeRanks(ingredientTypes));
+			ranksForStages.put(IngredientSortStage.MOD_NAME, createModNameRanks(modNames));
+			this.cachedStageRanks = ranksForStages;
+		}
+		return this.cachedStageRanks;
 	}
 
-	private Comparator<IIngredientListElementInfo<?>> createModNameComparator(Collection<String> modNames) {
-		return this.modNameSortingConfig.getComparatorFromMappedValues(modNames);
+	private ToIntFunction<IIngredientListElementInfo<?>> createModNameRanks(Collection<String> modNames) {
+		return this.modNameSortingConfig.getRankFunctionFromMappedValues(modNames);
 	}
 
-	private Comparator<IIngredientListElementInfo<?>> createIngredientTypeComparator(Collection<IIngredientType<?>> ingredientTypes) {
+	private ToIntFunction<IIngredientListElementInfo<?>> createIngredientTypeRanks(Collection<IIngredientType<?>> ingredientTypes) {
 		Set<String> ingredientTypeStrings = ingredientTypes.stream()
 			.map(IIngredientType::getIngredientClass)
 			.map(IngredientTypeSortingConfig::getIngredientType)
 			.collect(Collectors.toSet());
-		return this.ingredientTypeSortingConfig.getComparatorFromMappedValues(ingredientTypeStrings);
+		return this.ingredientTypeSortingConfig.getRankFunctionFromMappedValues(ingredientTypeStrings);
 	}
 
 	@Override
 	public void invalidateCache() {
+		this.cachedStageRanks = null;
+		this.cachedStageComparators = null;
 		this.cachedComparator = null;
 	}
 
@@ -8,7 +8,6 @@ import net.minecraft.item.crafting.Ingredient;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -23,16 +22,15 @@ public class Ingredients implements IIngredients {
 
 	@Override
 	public <T> void setInputLists(IIngredientType<T> ingredientType, List<List<T>> inputs) {
-		List<List<T>> expandedInputs = new ArrayList<>(inputs);
+		List<List<T>> expandedInputs = copyLists(ingredientType, inputs);
 		setIngredients(ingredientType, this.inputs, expandedInputs);
 	}
 
 	@Override
 	public void setInputIngredients(List<Ingredient> inputs) {
-		List<List<ItemStack>> inputLists = new ArrayList<>();
+		List<List<ItemStack>> inputLists = new ArrayList<>(inputs.size());
 		for (Ingredient input : inputs) {
-			ItemStack[] stacks = input.getMatchingStacks();
-			List<ItemStack> expandedInput = Arrays.asList(stacks);
+			List<ItemStack> expandedInput = ItemStackSlots.get(input);
 			inputLists.add(expandedInput);
 		}
 		setIngredients(VanillaTypes.ITEM, this.inputs, inputLists);
@@ -65,7 +63,7 @@ public class Ingredients implements IIngredients {
 
 	@Override
 	public <T> void setOutputLists(IIngredientType<T> ingredientType, List<List<T>> outputs) {
-		List<List<T>> expandedOutputs = new ArrayList<>(outputs);
+		List<List<T>> expandedOutputs = copyLists(ingredientType, outputs);
 		setIngredients(ingredientType, this.outputs, expandedOutputs);
 	}
 
@@ -87,6 +85,30 @@ public class Ingredients implements IIngredients {
 		return outputs;
 	}
 
+	/**
+	 * @return true if the list is an item stack list shared with other recipes, which never changes.
+	 */
+	public static boolean isSharedSlot(List<?> slot) {
+		return ItemStackSlots.isShared(slot);
+	}
+
+	/**
+	 * Item stack lists are shared with other recipes that have the same slots.
+	 */
+	private static <T> List<List<T>> copyLists(IIngredientType<T> ingredientType, List<List<T>> lists) {
+		List<List<T>> copy = new ArrayList<>(lists.size());
+		if (ingredientType == VanillaTypes.ITEM) {
+			for (List<T> list : lists) {
+				@SuppressWarnings("unchecked")
+				List<T> shared = list == null ? null : (List<T>) ItemStackSlots.intern((List<ItemStack>) list);
+				copy.add(shared);
+			}
+		} else {
+			copy.addAll(lists);
+		}
+		return copy;
+	}
+
 	private static <T> void setIngredients(IIngredientType<T> ingredientType, List<IngredientsForType<?>> ingredientsForTypes, List<List<T>> ingredients) {
 		IngredientsForType<T> recipeIngredients = getIngredientsForType(ingredientType, ingredientsForTypes);
 		if (recipeIngredients == null) {
@@ -0,0 +1,156 @@
+package mezz.jei.ingredients;
+
+import javax.annotation.Nullable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.collect.MapMaker;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.Ingredient;
+import net.minecraft.nbt.CompoundNBT;
+
+/**
+ * Shares the item stack lists of recipe slots between recipes.
+ *
+ * Recipes made from the same tag each have their own copy of its expanded item stacks,
+ * and {@link Ingredients} used to wrap them again every time a recipe's ingredients were set.
+ * Slots with equal stacks are stored once here, and the list for an {@link Ingredient} is remembered
+ * so that rebuilding a recipe layout does not need to look at its stacks again.
+ *
+ * The shared lists are unmodifiable, and are dropped when no recipe uses them anymore.
+ */
+final class ItemStackSlots {
+	private static final ConcurrentMap<SlotKey, List<ItemStack>> SLOTS = new MapMaker().weakValues().makeMap();
+	private static final ConcurrentMap<Ingredient, IngredientSlot> INGREDIENT_SLOTS = new MapMaker().weakKeys().makeMap();
+
+	private ItemStackSlots() {
+
+	}
+
+	public static List<ItemStack> get(Ingredient ingredient) {
+		ItemStack[] stacks = ingredient.getMatchingStacks();
+		IngredientSlot ingredientSlot = INGREDIENT_SLOTS.get(ingredient);
+		// the ingredient computes its stacks again when tags are reloaded
+		if (ingredientSlot == null || ingredientSlot.stacks != stacks) {
+			ingredientSlot = new IngredientSlot(stacks, intern(Arrays.asList(stacks)));
+			INGREDIENT_SLOTS.put(ingredient, ingredientSlot);
+		}
+		return ingredientSlot.slot;
+	}
+
+	/**
+	 * @return a shared list equal to the given slot, or the slot itself if it cannot be shared.
+	 */
+	public static List<ItemStack> intern(List<ItemStack> slot) {
+		if (slot.isEmpty()) {
+			return Collections.emptyList();
+		}
+		if (slot.size() == 1) {
+			// not worth the lookup
+			return slot;
+		}
+		ItemStack[] stacks = slot.toArray(new ItemStack[0]);
+		for (ItemStack stack : stacks) {
+			if (stack == null) {
+				return slot;
+			}
+		}
+		SlotKey key = new SlotKey(stacks);
+		List<ItemStack> shared = SLOTS.get(key);
+		if (shared == null) {
+			List<ItemStack> newShared = new SharedSlot(stacks);
+			shared = SLOTS.putIfAbsent(key, newShared);
+			if (shared == null) {
+				shared = newShared;
+			}
+		}
+		return shared;
+	}
+
+	/**
+	 * @return true if the list is one of the shared lists, which never change.
+	 */
+	public static boolean isShared(List<?> slot) {
+		return slot instanceof SharedSlot;
+	}
+
+	private static final class SharedSlot extends AbstractList<ItemStack> implements RandomAccess {
+		private final ItemStack[] stacks;
+
+		public SharedSlot(ItemStack[] stacks) {
+			this.stacks = stacks;
+		}
+
+		@Override
+		public ItemStack get(int index) {
+			return stacks[index];
+		}
+
+		@Override
+		public int size() {
+			return stacks.length;
+		}
+	}
+
+	private static final class IngredientSlot {
+		private final ItemStack[] stacks;
+		private final List<ItemStack> slot;
+
+		public IngredientSlot(ItemStack[] stacks, List<ItemStack> slot) {
+			this.stacks = stacks;
+			this.slot = slot;
+		}
+	}
+
+	private static final class SlotKey {
+		private final ItemStack[] stacks;
+		private final int hashCode;
+
+		public SlotKey(ItemStack[] stacks) {
+			this.stacks = stacks;
+			this.hashCode = hash(stacks);
+		}
+
+		private static int hash(ItemStack[] stacks) {
+			int result = 1;
+			for (ItemStack stack : stacks) {
+				Item item = stack.getItem();
+				CompoundNBT tag = stack.getTag();
+				result = 31 * result + item.hashCode();
+				result = 31 * result + stack.getCount();
+				result = 31 * result + (tag == null ? 0 : tag.hashCode());
+			}
+			return result;
+		}
+
+		@Override
+		public boolean equals(@Nullable Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof SlotKey)) {
+				return false;
+			}
+			SlotKey other = (SlotKey) obj;
+			if (hashCode != other.hashCode || stacks.length != other.stacks.length) {
+				return false;
+			}
+			for (int i = 0; i < stacks.length; i++) {
+				if (!ItemStack.areItemStacksEqual(stacks[i], other.stacks[i])) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+}
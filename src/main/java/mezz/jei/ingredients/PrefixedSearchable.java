@@ -24,6 +24,10 @@ public class PrefixedSearchable<T extends ISearchable> implements ISearchable {
 		return prefixInfo.getStrings(element);
 	}
 
+	public boolean isThreadSafe() {
+		return prefixInfo.isThreadSafe();
+	}
+
 	@Override
 	public SearchMode getMode() {
 		return prefixInfo.getMode();
@@ -228,10 +228,21 @@ public class InputHandler {
 
 	private <V> boolean handleClickEdit(IClickedIngredient<V> clicked) {
 		V ingredient = clicked.getValue();
-		IngredientBlacklistType blacklistType = Screen.hasControlDown() ? IngredientBlacklistType.WILDCARD : IngredientBlacklistType.ITEM;
-
 		IIngredientHelper<V> ingredientHelper = ingredientManager.getIngredientHelper(ingredient);
 
+		if (Screen.hasShiftDown()) {
+			String modId = ingredientHelper.getDisplayModId(ingredient);
+			if (editModeConfig.isIngredientOnConfigBlacklist(ingredient, ingredientHelper)) {
+				editModeConfig.removeModFromConfigBlacklist(ingredientFilter, ingredientManager, modId);
+			} else {
+				editModeConfig.addModToConfigBlacklist(ingredientFilter, ingredientManager, modId);
+			}
+			clicked.onClickHandled();
+			return true;
+		}
+
+		IngredientBlacklistType blacklistType = Screen.hasControlDown() ? IngredientBlacklistType.WILDCARD : IngredientBlacklistType.ITEM;
+
 		if (editModeConfig.isIngredientOnConfigBlacklist(ingredient, ingredientHelper)) {
 			editModeConfig.removeIngredientFromConfigBlacklist(ingredientFilter, ingredientManager, ingredient, blacklistType, ingredientHelper);
 		} else {
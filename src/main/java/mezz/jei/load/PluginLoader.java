@@ -100,7 +100,7 @@ public class PluginLoader {
 
 		VanillaRecipeFactory vanillaRecipeFactory = new VanillaRecipeFactory(ingredientManager);
 		IRecipeTransferHandlerHelper handlerHelper = new RecipeTransferHandlerHelper();
-		recipeTransferRegistration = new RecipeTransferRegistration(jeiHelpers.getStackHelper(), handlerHelper, jeiHelpers);
+		recipeTransferRegistration = new RecipeTransferRegistration(handlerHelper, jeiHelpers);
 
 		RecipeCategoryRegistration recipeCategoryRegistration = new RecipeCategoryRegistration(jeiHelpers);
 		PluginCaller.callOnPlugins("Registering categories", plugins, p -> p.registerCategories(recipeCategoryRegistration));
@@ -166,6 +166,7 @@ public class PluginLoader {
 		if (bookmarkList == null) {
 			timer.start("Building bookmarks");
 			bookmarkList = new BookmarkList(ingredientManager, bookmarkConfig);
+			// bookmarks are added to the list when they finish loading in the background
 			bookmarkConfig.loadBookmarks(ingredientManager, bookmarkList);
 			timer.stop();
 		}
@@ -5,7 +5,6 @@ import net.minecraft.util.ResourceLocation;
 
 import com.google.common.collect.ImmutableTable;
 import mezz.jei.api.helpers.IJeiHelpers;
-import mezz.jei.api.helpers.IStackHelper;
 import mezz.jei.api.recipe.transfer.IRecipeTransferHandler;
 import mezz.jei.api.recipe.transfer.IRecipeTransferHandlerHelper;
 import mezz.jei.api.recipe.transfer.IRecipeTransferInfo;
@@ -18,12 +17,10 @@ import mezz.jei.util.ErrorUtil;
 
 public class RecipeTransferRegistration implements IRecipeTransferRegistration {
 	private final Table<Class<?>, ResourceLocation, IRecipeTransferHandler<?>> recipeTransferHandlers = Table.hashBasedTable();
-	private final IStackHelper stackHelper;
 	private final IRecipeTransferHandlerHelper handlerHelper;
 	private final IJeiHelpers jeiHelpers;
 
-	public RecipeTransferRegistration(IStackHelper stackHelper, IRecipeTransferHandlerHelper handlerHelper, IJeiHelpers jeiHelpers) {
-		this.stackHelper = stackHelper;
+	public RecipeTransferRegistration(IRecipeTransferHandlerHelper handlerHelper, IJeiHelpers jeiHelpers) {
 		this.handlerHelper = handlerHelper;
 		this.jeiHelpers = jeiHelpers;
 	}
@@ -51,7 +48,7 @@ public class RecipeTransferRegistration implements IRecipeTransferRegistration {
 	public <C extends Container> void addRecipeTransferHandler(IRecipeTransferInfo<C> recipeTransferInfo) {
 		ErrorUtil.checkNotNull(recipeTransferInfo, "recipeTransferInfo");
 
-		IRecipeTransferHandler<C> recipeTransferHandler = new BasicRecipeTransferHandler<>(stackHelper, handlerHelper, recipeTransferInfo);
+		IRecipeTransferHandler<C> recipeTransferHandler = new BasicRecipeTransferHandler<>(handlerHelper, recipeTransferInfo);
 		addRecipeTransferHandler(recipeTransferHandler, recipeTransferInfo.getRecipeCategoryUid());
 	}
 
@@ -2,18 +2,23 @@ package mezz.jei.network;
 
 import java.util.EnumMap;
 
+import net.minecraftforge.event.RegisterCommandsEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
 import net.minecraftforge.fml.network.NetworkEvent;
+import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.entity.player.ServerPlayerEntity;
 import net.minecraft.network.PacketBuffer;
 import net.minecraft.util.ResourceLocation;
 
 import mezz.jei.api.constants.ModIds;
+import mezz.jei.events.EventBusHelper;
 import mezz.jei.network.packets.IPacketJeiHandler;
 import mezz.jei.network.packets.PacketDeletePlayerItem;
 import mezz.jei.network.packets.PacketGiveItemStack;
 import mezz.jei.network.packets.PacketRecipeTransfer;
 import mezz.jei.network.packets.PacketRequestCheatPermission;
 import mezz.jei.network.packets.PacketSetHotbarItemStack;
+import mezz.jei.util.CommandUtilServer;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -23,13 +28,19 @@ public class PacketHandler {
 	public static final ResourceLocation CHANNEL_ID = new ResourceLocation(ModIds.JEI_ID, "channel");
 
 	public final EnumMap<PacketIdServer, IPacketJeiHandler> serverHandlers = new EnumMap<>(PacketIdServer.class);
+	private final PacketRateLimiter rateLimiter = new PacketRateLimiter();
+	private final RecipeTransferCoalescer recipeTransferCoalescer = new RecipeTransferCoalescer();
+	private final PacketStats packetStats = new PacketStats();
 
 	public PacketHandler() {
-		serverHandlers.put(PacketIdServer.RECIPE_TRANSFER, PacketRecipeTransfer::readPacketData);
+		serverHandlers.put(PacketIdServer.RECIPE_TRANSFER, this::onRecipeTransfer);
 		serverHandlers.put(PacketIdServer.DELETE_ITEM, PacketDeletePlayerItem::readPacketData);
 		serverHandlers.put(PacketIdServer.GIVE_ITEM, PacketGiveItemStack::readPacketData);
 		serverHandlers.put(PacketIdServer.SET_HOTBAR_ITEM, PacketSetHotbarItemStack::readPacketData);
 		serverHandlers.put(PacketIdServer.CHEAT_PERMISSION_REQUEST, PacketRequestCheatPermission::readPacketData);
+
+		EventBusHelper.addListener(PlayerEvent.PlayerLoggedOutEvent.class, event -> onPlayerLoggedOut(event.getPlayer()));
+		EventBusHelper.addListener(RegisterCommandsEvent.class, event -> PacketStatsCommand.register(event.getDispatcher(), packetStats));
 	}
 
 	public void onPacket(NetworkEvent.ClientCustomPayloadEvent event) {
@@ -40,14 +51,40 @@ public class PacketHandler {
 			LOGGER.error("Packet error, the sender player is missing for event: {}", event);
 			return;
 		}
+		PacketIdServer packetId = null;
 		try {
 			int packetIdOrdinal = packetBuffer.readByte();
-			PacketIdServer packetId = PacketIdServer.VALUES[packetIdOrdinal];
-			IPacketJeiHandler packetHandler = serverHandlers.get(packetId);
-			packetHandler.readPacketData(packetBuffer, player);
+			packetId = PacketIdServer.VALUES[packetIdOrdinal];
+			packetStats.onReceived(packetId);
+			if (rateLimiter.tryAcquire(player, packetId)) {
+				IPacketJeiHandler packetHandler = serverHandlers.get(packetId);
+				long start = System.nanoTime();
+				packetHandler.readPacketData(packetBuffer, player);
+				packetStats.onHandled(packetId, System.nanoTime() - start);
+			} else {
+				packetStats.onRateLimited(packetId);
+			}
 		} catch (RuntimeException e) {
+			if (packetId != null) {
+				packetStats.onFailed(packetId);
+			}
 			LOGGER.error("Packet error for event: {}", event, e);
 		}
 		event.getSource().get().setPacketHandled(true);
 	}
+
+	private void onRecipeTransfer(PacketBuffer packetBuffer, PlayerEntity player) {
+		PacketRecipeTransfer packet = PacketRecipeTransfer.readPacketData(packetBuffer);
+		if (recipeTransferCoalescer.isRedundant(player, packet)) {
+			packetStats.onCoalesced(PacketIdServer.RECIPE_TRANSFER);
+		} else {
+			packet.execute(player);
+		}
+	}
+
+	private void onPlayerLoggedOut(PlayerEntity player) {
+		rateLimiter.onPlayerLoggedOut(player);
+		recipeTransferCoalescer.onPlayerLoggedOut(player);
+		CommandUtilServer.onPlayerLoggedOut(player);
+	}
 }
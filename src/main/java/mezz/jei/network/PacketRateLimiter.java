@@ -0,0 +1,84 @@
+package mezz.jei.network;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import net.minecraft.entity.player.PlayerEntity;
+
+/**
+ * Limits how often each player can send each kind of JEI packet to the server.
+ * Every player has a token bucket per {@link PacketIdServer}, so a burst of packets is allowed
+ * but a client holding down a key cannot make the server do an unbounded amount of work.
+ */
+public class PacketRateLimiter {
+	private static final Map<PacketIdServer, Limit> LIMITS = new EnumMap<>(PacketIdServer.class);
+
+	static {
+		LIMITS.put(PacketIdServer.RECIPE_TRANSFER, new Limit(20, 10));
+		LIMITS.put(PacketIdServer.DELETE_ITEM, new Limit(20, 10));
+		LIMITS.put(PacketIdServer.GIVE_ITEM, new Limit(40, 20));
+		LIMITS.put(PacketIdServer.SET_HOTBAR_ITEM, new Limit(40, 20));
+		LIMITS.put(PacketIdServer.CHEAT_PERMISSION_REQUEST, new Limit(5, 1));
+	}
+
+	private final Map<UUID, Map<PacketIdServer, TokenBucket>> playerBuckets = new ConcurrentHashMap<>();
+
+	/**
+	 * @return true if the player is allowed to send this packet now, false if it should be dropped.
+	 */
+	public boolean tryAcquire(PlayerEntity player, PacketIdServer packetId) {
+		Limit limit = LIMITS.get(packetId);
+		if (limit == null) {
+			return true;
+		}
+		Map<PacketIdServer, TokenBucket> buckets = playerBuckets.computeIfAbsent(player.getUniqueID(), k -> new EnumMap<>(PacketIdServer.class));
+		synchronized (buckets) {
+			TokenBucket bucket = buckets.computeIfAbsent(packetId, k -> new TokenBucket(limit));
+			return bucket.tryAcquire(System.nanoTime());
+		}
+	}
+
+	public void onPlayerLoggedOut(PlayerEntity player) {
+		playerBuckets.remove(player.getUniqueID());
+	}
+
+	private static class Limit {
+		private final int capacity;
+		private final int refillPerSecond;
+
+		public Limit(int capacity, int refillPerSecond) {
+			this.capacity = capacity;
+			this.refillPerSecond = refillPerSecond;
+		}
+	}
+
+	private static class TokenBucket {
+		private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+		private final Limit limit;
+		private double tokens;
+		private long lastRefillNanos;
+
+		public TokenBucket(Limit limit) {
+			this.limit = limit;
+			this.tokens = limit.capacity;
+			this.lastRefillNanos = System.nanoTime();
+		}
+
+		public boolean tryAcquire(long nowNanos) {
+			long elapsedNanos = nowNanos - lastRefillNanos;
+			if (elapsedNanos > 0) {
+				tokens = Math.min(limit.capacity, tokens + (elapsedNanos / NANOS_PER_SECOND) * limit.refillPerSecond);
+				lastRefillNanos = nowNanos;
+			}
+			if (tokens >= 1) {
+				tokens -= 1;
+				return true;
+			}
+			return false;
+		}
+	}
+}
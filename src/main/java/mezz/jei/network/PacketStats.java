@@ -0,0 +1,91 @@
+package mezz.jei.network;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import net.minecraft.util.text.ITextComponent;
+import net.minecraft.util.text.TranslationTextComponent;
+
+/**
+ * Counters and timings for each kind of JEI packet received by the server.
+ * Shown to server operators with the "/jei packets" command.
+ */
+public class PacketStats {
+	private final Map<PacketIdServer, Entry> entries = new EnumMap<>(PacketIdServer.class);
+
+	public PacketStats() {
+		for (PacketIdServer packetId : PacketIdServer.VALUES) {
+			entries.put(packetId, new Entry());
+		}
+	}
+
+	public void onReceived(PacketIdServer packetId) {
+		entries.get(packetId).received.increment();
+	}
+
+	public void onRateLimited(PacketIdServer packetId) {
+		entries.get(packetId).rateLimited.increment();
+	}
+
+	public void onCoalesced(PacketIdServer packetId) {
+		entries.get(packetId).coalesced.increment();
+	}
+
+	public void onFailed(PacketIdServer packetId) {
+		entries.get(packetId).failed.increment();
+	}
+
+	public void onHandled(PacketIdServer packetId, long elapsedNanos) {
+		Entry entry = entries.get(packetId);
+		entry.handled.increment();
+		entry.totalNanos.add(elapsedNanos);
+		entry.maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+	}
+
+	public void reset() {
+		for (Entry entry : entries.values()) {
+			entry.reset();
+		}
+	}
+
+	public ITextComponent getSummary(PacketIdServer packetId) {
+		Entry entry = entries.get(packetId);
+		long handled = entry.handled.sum();
+		long totalNanos = entry.totalNanos.sum();
+		double averageMillis = handled == 0 ? 0 : (double) totalNanos / handled / TimeUnit.MILLISECONDS.toNanos(1);
+		double maxMillis = (double) entry.maxNanos.get() / TimeUnit.MILLISECONDS.toNanos(1);
+		return new TranslationTextComponent("jei.command.packets.summary",
+			packetId.name(),
+			entry.received.sum(),
+			handled,
+			entry.rateLimited.sum(),
+			entry.coalesced.sum(),
+			entry.failed.sum(),
+			String.format("%.3f", averageMillis),
+			String.format("%.3f", maxMillis)
+		);
+	}
+
+	private static class Entry {
+		private final LongAdder received = new LongAdder();
+		private final LongAdder rateLimited = new LongAdder();
+		private final LongAdder coalesced = new LongAdder();
+		private final LongAdder failed = new LongAdder();
+		private final LongAdder handled = new LongAdder();
+		private final LongAdder totalNanos = new LongAdder();
+		private final AtomicLong maxNanos = new AtomicLong();
+
+		public void reset() {
+			received.reset();
+			rateLimited.reset();
+			coalesced.reset();
+			failed.reset();
+			handled.reset();
+			totalNanos.reset();
+			maxNanos.set(0);
+		}
+	}
+}
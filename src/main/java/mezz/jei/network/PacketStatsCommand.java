@@ -0,0 +1,41 @@
+package mezz.jei.network;
+
+import com.mojang.brigadier.CommandDispatcher;
+import net.minecraft.command.CommandSource;
+import net.minecraft.command.Commands;
+import net.minecraft.util.text.TranslationTextComponent;
+
+import mezz.jei.api.constants.ModIds;
+
+/**
+ * Registers "/jei packets" and "/jei packets reset" for server operators.
+ */
+public final class PacketStatsCommand {
+	private static final int PERMISSION_LEVEL = 2;
+
+	private PacketStatsCommand() {
+	}
+
+	public static void register(CommandDispatcher<CommandSource> dispatcher, PacketStats packetStats) {
+		dispatcher.register(
+			Commands.literal(ModIds.JEI_ID)
+				.requires(source -> source.hasPermissionLevel(PERMISSION_LEVEL))
+				.then(Commands.literal("packets")
+					.executes(context -> {
+						CommandSource source = context.getSource();
+						for (PacketIdServer packetId : PacketIdServer.VALUES) {
+							source.sendFeedback(packetStats.getSummary(packetId), false);
+						}
+						return PacketIdServer.VALUES.length;
+					})
+					.then(Commands.literal("reset")
+						.executes(context -> {
+							packetStats.reset();
+							context.getSource().sendFeedback(new TranslationTextComponent("jei.command.packets.reset"), true);
+							return 1;
+						})
+					)
+				)
+		);
+	}
+}
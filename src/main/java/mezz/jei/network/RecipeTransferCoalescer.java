@@ -0,0 +1,48 @@
+package mezz.jei.network;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.server.MinecraftServer;
+
+import mezz.jei.network.packets.PacketRecipeTransfer;
+
+/**
+ * Detects recipe transfer requests that repeat the previous request from the same player,
+ * for the same open container, within the same server tick. Those would only repeat the work
+ * of the first request, so they are dropped.
+ */
+public class RecipeTransferCoalescer {
+	private final Map<UUID, LastTransfer> lastTransfers = new ConcurrentHashMap<>();
+
+	public boolean isRedundant(PlayerEntity player, PacketRecipeTransfer packet) {
+		MinecraftServer server = player.getServer();
+		int tick = server == null ? 0 : server.getTickCounter();
+		int windowId = player.openContainer.windowId;
+
+		LastTransfer current = new LastTransfer(tick, windowId, packet);
+		LastTransfer last = lastTransfers.put(player.getUniqueID(), current);
+		return last != null &&
+			last.tick == tick &&
+			last.windowId == windowId &&
+			last.packet.isSameTransfer(packet);
+	}
+
+	public void onPlayerLoggedOut(PlayerEntity player) {
+		lastTransfers.remove(player.getUniqueID());
+	}
+
+	private static class LastTransfer {
+		private final int tick;
+		private final int windowId;
+		private final PacketRecipeTransfer packet;
+
+		public LastTransfer(int tick, int windowId, PacketRecipeTransfer packet) {
+			this.tick = tick;
+			this.windowId = windowId;
+			this.packet = packet;
+		}
+	}
+}
@@ -54,7 +54,7 @@ public class PacketRecipeTransfer extends PacketJei {
 		buf.writeBoolean(requireCompleteSets);
 	}
 
-	public static void readPacketData(PacketBuffer buf, PlayerEntity player) {
+	public static PacketRecipeTransfer readPacketData(PacketBuffer buf) {
 		int recipeMapSize = buf.readVarInt();
 		Map<Integer, Integer> recipeMap = new HashMap<>(recipeMapSize);
 		for (int i = 0; i < recipeMapSize; i++) {
@@ -79,7 +79,21 @@ public class PacketRecipeTransfer extends PacketJei {
 		boolean maxTransfer = buf.readBoolean();
 		boolean requireCompleteSets = buf.readBoolean();
 
+		return new PacketRecipeTransfer(recipeMap, craftingSlots, inventorySlots, maxTransfer, requireCompleteSets);
+	}
+
+	public void execute(PlayerEntity player) {
 		BasicRecipeTransferHandlerServer.setItems(player, recipeMap, craftingSlots, inventorySlots, maxTransfer, requireCompleteSets);
 	}
 
+	/**
+	 * @return true if the other packet asks for exactly the same transfer as this one.
+	 */
+	public boolean isSameTransfer(PacketRecipeTransfer other) {
+		return maxTransfer == other.maxTransfer &&
+			requireCompleteSets == other.requireCompleteSets &&
+			recipeMap.equals(other.recipeMap) &&
+			craftingSlots.equals(other.craftingSlots) &&
+			inventorySlots.equals(other.inventorySlots);
+	}
 }
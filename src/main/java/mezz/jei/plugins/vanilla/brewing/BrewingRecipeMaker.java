@@ -103,37 +103,29 @@ public class BrewingRecipeMaker {
 			}
 		}
 
-		boolean foundNewPotions;
-		do {
-			List<ItemStack> newPotions = getNewPotions(knownPotions, potionReagents, recipes, vanillaBrewingRecipe);
-			foundNewPotions = !newPotions.isEmpty();
-			knownPotions.addAll(newPotions);
-		} while (foundNewPotions);
+		// Every known potion has been brewed with every reagent once it has been through a round,
+		// so each round only needs to brew the potions that were found in the last one.
+		List<ItemStack> frontier = new ArrayList<>(knownPotions);
+		while (!frontier.isEmpty()) {
+			List<ItemStack> newPotions = getNewPotions(frontier, potionReagents, recipes, vanillaBrewingRecipe);
+			frontier = new ArrayList<>();
+			for (ItemStack newPotion : newPotions) {
+				if (knownPotions.add(newPotion)) {
+					frontier.add(newPotion);
+				}
+			}
+		}
 	}
 
-	private List<ItemStack> getNewPotions(Collection<ItemStack> knownPotions, List<ItemStack> potionReagents, Collection<IJeiBrewingRecipe> recipes, VanillaBrewingRecipe vanillaBrewingRecipe) {
+	private List<ItemStack> getNewPotions(List<ItemStack> potionInputs, List<ItemStack> potionReagents, Collection<IJeiBrewingRecipe> recipes, VanillaBrewingRecipe vanillaBrewingRecipe) {
 		List<ItemStack> newPotions = new ArrayList<>();
-		for (ItemStack potionInput : knownPotions) {
+		for (ItemStack potionInput : potionInputs) {
 			for (ItemStack potionReagent : potionReagents) {
 				ItemStack potionOutput = vanillaBrewingRecipe.getOutput(potionInput.copy(), potionReagent);
-				if (potionOutput.isEmpty()) {
+				if (!isBrewingStep(potionInput, potionOutput)) {
 					continue;
 				}
 
-				if (potionInput.getItem() == potionOutput.getItem()) {
-					Potion potionOutputType = PotionUtils.getPotionFromItem(potionOutput);
-					if (potionOutputType == Potions.WATER) {
-						continue;
-					}
-
-					Potion potionInputType = PotionUtils.getPotionFromItem(potionInput);
-					ResourceLocation inputId = ForgeRegistries.POTION_TYPES.getKey(potionInputType);
-					ResourceLocation outputId = ForgeRegistries.POTION_TYPES.getKey(potionOutputType);
-					if (Objects.equals(inputId, outputId)) {
-						continue;
-					}
-				}
-
 				IJeiBrewingRecipe recipe = vanillaRecipeFactory.createBrewingRecipe(Collections.singletonList(potionReagent), potionInput.copy(), potionOutput);
 				if (!recipes.contains(recipe) && !disabledRecipes.contains(recipe)) {
 					if (BrewingRecipeRegistry.hasOutput(potionInput, potionReagent)) {
@@ -148,6 +140,25 @@ public class BrewingRecipeMaker {
 		return newPotions;
 	}
 
+	private static boolean isBrewingStep(ItemStack potionInput, ItemStack potionOutput) {
+		if (potionOutput.isEmpty()) {
+			return false;
+		}
+
+		if (potionInput.getItem() == potionOutput.getItem()) {
+			Potion potionOutputType = PotionUtils.getPotionFromItem(potionOutput);
+			if (potionOutputType == Potions.WATER) {
+				return false;
+			}
+
+			Potion potionInputType = PotionUtils.getPotionFromItem(potionInput);
+			ResourceLocation inputId = ForgeRegistries.POTION_TYPES.getKey(potionInputType);
+			ResourceLocation outputId = ForgeRegistries.POTION_TYPES.getKey(potionOutputType);
+			return !Objects.equals(inputId, outputId);
+		}
+		return true;
+	}
+
 	private void addModdedBrewingRecipes(Collection<IBrewingRecipe> brewingRecipes, Collection<IJeiBrewingRecipe> recipes) {
 		for (IBrewingRecipe iBrewingRecipe : brewingRecipes) {
 			if (iBrewingRecipe instanceof BrewingRecipe) {
@@ -0,0 +1,79 @@
+package mezz.jei.recipes;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.tags.ITag;
+import net.minecraft.tags.ITagCollection;
+import net.minecraft.tags.ItemTags;
+import net.minecraft.util.ResourceLocation;
+
+import mezz.jei.api.ingredients.IIngredientHelper;
+import mezz.jei.api.ingredients.subtypes.UidContext;
+
+/**
+ * Recognizes recipe slots that hold exactly the items of an item tag, like the slots created by {@code Ingredient.fromTag}.
+ *
+ * Such a slot matches the same ingredients as the tag does, as long as none of its stacks have subtypes.
+ * The recipe can then be indexed once under the tag instead of once for every item in it.
+ */
+final class ItemTagSlots {
+	/**
+	 * Smaller slots are cheap to index item by item.
+	 */
+	private static final int MIN_SLOT_SIZE = 4;
+
+	private final IIngredientHelper<ItemStack> ingredientHelper;
+	/**
+	 * Whether a stack of the item without NBT has the item's wildcard id as its uid, meaning it has no subtypes.
+	 */
+	private final Map<Item, Boolean> itemsWithoutSubtypes = new HashMap<>();
+
+	public ItemTagSlots(IIngredientHelper<ItemStack> ingredientHelper) {
+		this.ingredientHelper = ingredientHelper;
+	}
+
+	/**
+	 * @return the tag with exactly the items in the slot, or null if there is none.
+	 */
+	@Nullable
+	public ResourceLocation getTag(List<ItemStack> slot) {
+		if (slot.size() < MIN_SLOT_SIZE) {
+			return null;
+		}
+		Set<Item> items = new HashSet<>();
+		for (ItemStack itemStack : slot) {
+			if (itemStack == null || itemStack.isEmpty() || itemStack.hasTag() || !hasNoSubtypes(itemStack)) {
+				return null;
+			}
+			items.add(itemStack.getItem());
+		}
+
+		ITagCollection<Item> collection = ItemTags.getCollection();
+		Item firstItem = slot.get(0).getItem();
+		for (ResourceLocation tagId : firstItem.getTags()) {
+			ITag<Item> tag = collection.get(tagId);
+			if (tag != null) {
+				List<Item> tagItems = tag.getAllElements();
+				if (tagItems.size() == items.size() && items.containsAll(tagItems)) {
+					return tagId;
+				}
+			}
+		}
+		return null;
+	}
+
+	private boolean hasNoSubtypes(ItemStack itemStack) {
+		return itemsWithoutSubtypes.computeIfAbsent(itemStack.getItem(), item -> {
+			String uid = ingredientHelper.getUniqueId(itemStack, UidContext.Recipe);
+			String wildcardId = ingredientHelper.getWildcardId(itemStack);
+			return uid.equals(wildcardId);
+		});
+	}
+}
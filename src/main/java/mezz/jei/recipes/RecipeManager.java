@@ -5,12 +5,20 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import mezz.jei.api.helpers.IModIdHelper;
+import mezz.jei.api.ingredients.IIngredientHelper;
+import mezz.jei.api.ingredients.IIngredientType;
+import mezz.jei.api.ingredients.subtypes.UidContext;
+import mezz.jei.collect.Table;
 import mezz.jei.config.sorting.RecipeCategorySortingConfig;
 import net.minecraft.util.ResourceLocation;
 
@@ -30,6 +38,7 @@ import mezz.jei.ingredients.IngredientFilter;
 import mezz.jei.ingredients.IngredientManager;
 import mezz.jei.ingredients.Ingredients;
 import mezz.jei.util.ErrorUtil;
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -40,10 +49,19 @@ public class RecipeManager implements IRecipeManager {
 	private final ImmutableList<IRecipeCategory<?>> recipeCategories;
 	private final Set<ResourceLocation> hiddenRecipeCategoryUids = new HashSet<>();
 	private final List<IRecipeCategory<?>> recipeCategoriesVisibleCache = new ArrayList<>();
+	private final Set<ResourceLocation> recipeCategoryUidsVisibleCache = new HashSet<>();
+	/**
+	 * Caches the visible recipe category uids that the internal plugin finds for a focus in {@link #getRecipeCategories(IFocus)},
+	 * keyed by focus mode, ingredient type and ingredient uid.
+	 * Other plugins are always asked, their results can depend on more of the ingredient than its uid.
+	 * Cleared whenever recipes or recipe categories are added, hidden, or unhidden.
+	 */
+	private final Table<IFocus.Mode, Pair<IIngredientType<?>, String>, List<ResourceLocation>> focusRecipeCategoriesCache = new Table<>(new EnumMap<>(IFocus.Mode.class), HashMap::new);
 	private final RecipeCategoryDataMap recipeCategoriesDataMap;
 	private final Comparator<IRecipeCategory<?>> recipeCategoryComparator;
 	private final RecipeMap recipeInputMap;
 	private final RecipeMap recipeOutputMap;
+	private final RecipeManagerPluginSafeWrapper internalRecipeManagerPlugin;
 	private final List<RecipeManagerPluginSafeWrapper> plugins = new ArrayList<>();
 	private final IModIdHelper modIdHelper;
 
@@ -82,7 +100,8 @@ public class RecipeManager implements IRecipeManager {
 
 		ImmutableMultimap<String, ResourceLocation> categoriesForRecipeCatalystKeys = recipeCatalystBuilder.buildCategoriesForRecipeCatalystKeys();
 		IRecipeManagerPlugin internalRecipeManagerPlugin = new InternalRecipeManagerPlugin(this, categoriesForRecipeCatalystKeys, ingredientManager, recipeCategoriesDataMap, recipeInputMap, recipeOutputMap);
-		this.plugins.add(new RecipeManagerPluginSafeWrapper(internalRecipeManagerPlugin));
+		this.internalRecipeManagerPlugin = new RecipeManagerPluginSafeWrapper(internalRecipeManagerPlugin);
+		this.plugins.add(this.internalRecipeManagerPlugin);
 		for (IRecipeManagerPlugin plugin : plugins) {
 			this.plugins.add(new RecipeManagerPluginSafeWrapper(plugin));
 		}
@@ -147,52 +166,103 @@ public class RecipeManager implements IRecipeManager {
 
 			unhideRecipe(recipe, recipeCategory.getUid());
 
-			recipeCategoriesVisibleCache.clear();
+			invalidateCaches();
 		} catch (RuntimeException | LinkageError e) {
 			String recipeInfo = ErrorUtil.getInfoFromRecipe(recipe, recipeCategory);
 			LOGGER.error("Found a broken recipe: {}\n", recipeInfo, e);
 		}
 	}
 
+	private void invalidateCaches() {
+		recipeCategoriesVisibleCache.clear();
+		recipeCategoryUidsVisibleCache.clear();
+		focusRecipeCategoriesCache.clear();
+	}
+
 	@Override
 	public List<IRecipeCategory<?>> getRecipeCategories() {
 		if (recipeCategoriesVisibleCache.isEmpty()) {
 			for (IRecipeCategory<?> recipeCategory : this.recipeCategories) {
 				if (isCategoryVisible(recipeCategory)) {
 					recipeCategoriesVisibleCache.add(recipeCategory);
+					recipeCategoryUidsVisibleCache.add(recipeCategory.getUid());
 				}
 			}
 		}
 		return recipeCategoriesVisibleCache;
 	}
 
-	private boolean isCategoryVisible(IRecipeCategory<?> recipeCategory) {
+	private <T> boolean isCategoryVisible(IRecipeCategory<T> recipeCategory) {
 		if (hiddenRecipeCategoryUids.contains(recipeCategory.getUid())) {
 			return false;
 		}
-		List<Object> allCatalysts = getRecipeCatalysts(recipeCategory, true);
-		if (!allCatalysts.isEmpty()) {
-			List<Object> visibleCatalysts = getRecipeCatalysts(recipeCategory, false);
-			if (visibleCatalysts.isEmpty()) {
-				return false;
+		RecipeCategoryData<T> recipeCategoryData = recipeCategoriesDataMap.get(recipeCategory);
+		ImmutableList<Object> allCatalysts = recipeCategoryData.getRecipeCatalysts();
+		if (!allCatalysts.isEmpty() && !hasVisibleCatalyst(allCatalysts)) {
+			return false;
+		}
+		Set<T> hiddenRecipes = recipeCategoryData.getHiddenRecipes();
+		for (IRecipeManagerPlugin plugin : this.plugins) {
+			List<T> recipes = plugin.getRecipes(recipeCategory);
+			if (hasVisibleRecipe(recipes, hiddenRecipes)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean hasVisibleCatalyst(List<Object> catalysts) {
+		IngredientFilter ingredientFilter = Internal.getIngredientFilter();
+		for (Object catalyst : catalysts) {
+			if (ingredientManager.isIngredientVisible(catalyst, ingredientFilter)) {
+				return true;
 			}
 		}
-		return !getRecipes(recipeCategory).isEmpty();
+		return false;
+	}
+
+	private static <T> boolean hasVisibleRecipe(List<T> recipes, Set<T> hiddenRecipes) {
+		if (hiddenRecipes.isEmpty()) {
+			return !recipes.isEmpty();
+		}
+		for (T recipe : recipes) {
+			if (!hiddenRecipes.contains(recipe)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private <T, V> boolean hasVisibleRecipe(Collection<? extends IRecipeManagerPlugin> plugins, IRecipeCategory<T> recipeCategory, IFocus<V> focus) {
+		RecipeCategoryData<T> recipeCategoryData = recipeCategoriesDataMap.get(recipeCategory);
+		Set<T> hiddenRecipes = recipeCategoryData.getHiddenRecipes();
+		for (IRecipeManagerPlugin plugin : plugins) {
+			List<T> recipes = plugin.getRecipes(recipeCategory, focus);
+			if (hasVisibleRecipe(recipes, hiddenRecipes)) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	@Override
 	public List<IRecipeCategory<?>> getRecipeCategories(List<ResourceLocation> recipeCategoryUids) {
 		ErrorUtil.checkNotNull(recipeCategoryUids, "recipeCategoryUids");
 
-		List<IRecipeCategory<?>> categories = new ArrayList<>();
+		Set<ResourceLocation> requestedUids = new HashSet<>(recipeCategoryUids.size());
 		for (ResourceLocation recipeCategoryUid : recipeCategoryUids) {
-			RecipeCategoryData<?> recipeCategoryData = recipeCategoriesDataMap.get(recipeCategoryUid);
-			IRecipeCategory<?> recipeCategory = recipeCategoryData.getRecipeCategory();
-			if (getRecipeCategories().contains(recipeCategory)) {
+			recipeCategoriesDataMap.validate(recipeCategoryUid);
+			requestedUids.add(recipeCategoryUid);
+		}
+
+		// the visible categories are already sorted, so filtering them keeps the sort order
+		List<IRecipeCategory<?>> visibleCategories = getRecipeCategories();
+		List<IRecipeCategory<?>> categories = new ArrayList<>(Math.min(requestedUids.size(), visibleCategories.size()));
+		for (IRecipeCategory<?> recipeCategory : visibleCategories) {
+			if (requestedUids.contains(recipeCategory.getUid())) {
 				categories.add(recipeCategory);
 			}
 		}
-		categories.sort(this.recipeCategoryComparator);
 		return Collections.unmodifiableList(categories);
 	}
 
@@ -200,73 +270,128 @@ public class RecipeManager implements IRecipeManager {
 	public <V> List<IRecipeCategory<?>> getRecipeCategories(IFocus<V> focus) {
 		focus = Focus.check(focus);
 
-		List<ResourceLocation> allRecipeCategoryUids = new ArrayList<>();
+		// make sure the visible categories are computed before they are used for this focus
+		getRecipeCategories();
+
+		Set<ResourceLocation> allRecipeCategoryUids = new LinkedHashSet<>(getInternalRecipeCategoryUids(focus));
 		for (IRecipeManagerPlugin plugin : this.plugins) {
-			List<ResourceLocation> recipeCategoryUids = plugin.getRecipeCategoryUids(focus);
-			for (ResourceLocation recipeCategoryUid : recipeCategoryUids) {
-				if (!allRecipeCategoryUids.contains(recipeCategoryUid)) {
-					RecipeCategoryData<?> recipeCategoryData = recipeCategoriesDataMap.get(recipeCategoryUid);
-					Set<?> hiddenRecipes = recipeCategoryData.getHiddenRecipes();
-					if (!hiddenRecipes.isEmpty()) {
-						IRecipeCategory<?> recipeCategory = getRecipeCategory(recipeCategoryUid);
-						if (recipeCategory != null) {
-							List<?> recipes = getRecipes(recipeCategory, focus);
-							if (!recipes.isEmpty()) {
-								allRecipeCategoryUids.add(recipeCategoryUid);
-							}
-						}
-					} else {
+			if (plugin != this.internalRecipeManagerPlugin) {
+				addVisibleRecipeCategoryUids(plugin, this.plugins, focus, allRecipeCategoryUids);
+			}
+		}
+
+		return getRecipeCategories(new ArrayList<>(allRecipeCategoryUids));
+	}
+
+	private <V> List<ResourceLocation> getInternalRecipeCategoryUids(IFocus<V> focus) {
+		V ingredient = focus.getValue();
+		IIngredientType<V> ingredientType = ingredientManager.getIngredientType(ingredient);
+		IIngredientHelper<V> ingredientHelper = ingredientManager.getIngredientHelper(ingredientType);
+		String ingredientUid = ingredientHelper.getUniqueId(ingredient, UidContext.Recipe);
+		Pair<IIngredientType<?>, String> key = Pair.of(ingredientType, ingredientUid);
+		List<ResourceLocation> cachedRecipeCategoryUids = focusRecipeCategoriesCache.get(focus.getMode(), key);
+		if (cachedRecipeCategoryUids != null) {
+			return cachedRecipeCategoryUids;
+		}
+
+		// only check the internal plugin's recipes for visibility, so that the result only depends on the ingredient uid
+		Set<ResourceLocation> recipeCategoryUids = new LinkedHashSet<>();
+		List<RecipeManagerPluginSafeWrapper> internalPlugin = Collections.singletonList(this.internalRecipeManagerPlugin);
+		addVisibleRecipeCategoryUids(this.internalRecipeManagerPlugin, internalPlugin, focus, recipeCategoryUids);
+		List<ResourceLocation> recipeCategoryUidList = ImmutableList.copyOf(recipeCategoryUids);
+		focusRecipeCategoriesCache.put(focus.getMode(), key, recipeCategoryUidList);
+		return recipeCategoryUidList;
+	}
+
+	/**
+	 * Adds the visible recipe categories that the plugin finds for the focus,
+	 * leaving out categories where all of the recipes from the given recipe plugins are hidden.
+	 */
+	private <V> void addVisibleRecipeCategoryUids(IRecipeManagerPlugin plugin, Collection<? extends IRecipeManagerPlugin> recipePlugins, IFocus<V> focus, Set<ResourceLocation> allRecipeCategoryUids) {
+		List<ResourceLocation> recipeCategoryUids = plugin.getRecipeCategoryUids(focus);
+		for (ResourceLocation recipeCategoryUid : recipeCategoryUids) {
+			if (!allRecipeCategoryUids.contains(recipeCategoryUid) && recipeCategoryUidsVisibleCache.contains(recipeCategoryUid)) {
+				RecipeCategoryData<?> recipeCategoryData = recipeCategoriesDataMap.get(recipeCategoryUid);
+				Set<?> hiddenRecipes = recipeCategoryData.getHiddenRecipes();
+				if (!hiddenRecipes.isEmpty()) {
+					IRecipeCategory<?> recipeCategory = getRecipeCategory(recipeCategoryUid);
+					if (recipeCategory != null && hasVisibleRecipe(recipePlugins, recipeCategory, focus)) {
 						allRecipeCategoryUids.add(recipeCategoryUid);
 					}
+				} else {
+					allRecipeCategoryUids.add(recipeCategoryUid);
 				}
 			}
 		}
-
-		return getRecipeCategories(allRecipeCategoryUids);
 	}
 
 	@Override
 	public <T, V> List<T> getRecipes(IRecipeCategory<T> recipeCategory, IFocus<V> focus) {
 		ErrorUtil.checkNotNull(recipeCategory, "recipeCategory");
-		focus = Focus.check(focus);
-
-		List<T> allRecipes = new ArrayList<>();
-		for (IRecipeManagerPlugin plugin : this.plugins) {
-			List<T> recipes = plugin.getRecipes(recipeCategory, focus);
-			allRecipes.addAll(recipes);
-		}
-
-		RecipeCategoryData<T> recipeCategoryData = recipeCategoriesDataMap.get(recipeCategory);
-		Set<T> hiddenRecipes = recipeCategoryData.getHiddenRecipes();
-		allRecipes.removeAll(hiddenRecipes);
-
-		return allRecipes;
+		Focus<V> checkedFocus = Focus.check(focus);
+		return getVisibleRecipes(recipeCategory, plugin -> plugin.getRecipes(recipeCategory, checkedFocus));
 	}
 
 	@Override
 	public <T> List<T> getRecipes(IRecipeCategory<T> recipeCategory) {
 		ErrorUtil.checkNotNull(recipeCategory, "recipeCategory");
 
-		List<T> allRecipes = new ArrayList<>();
-		for (IRecipeManagerPlugin plugin : this.plugins) {
-			List<T> recipes = plugin.getRecipes(recipeCategory);
-			allRecipes.addAll(recipes);
-		}
+		return getVisibleRecipes(recipeCategory, plugin -> plugin.getRecipes(recipeCategory));
+	}
 
+	/**
+	 * Joins the recipes from all plugins, leaving out hidden recipes as they are added.
+	 * When only one plugin has recipes and none of them are hidden, its list is returned without copying it.
+	 */
+	private <T> List<T> getVisibleRecipes(IRecipeCategory<T> recipeCategory, Function<IRecipeManagerPlugin, List<T>> getPluginRecipes) {
 		RecipeCategoryData<T> recipeCategoryData = recipeCategoriesDataMap.get(recipeCategory);
 		Set<T> hiddenRecipes = recipeCategoryData.getHiddenRecipes();
-		allRecipes.removeAll(hiddenRecipes);
 
-		return allRecipes;
+		List<T> firstRecipes = Collections.emptyList();
+		List<T> allRecipes = null;
+		for (IRecipeManagerPlugin plugin : this.plugins) {
+			List<T> recipes = getPluginRecipes.apply(plugin);
+			if (recipes.isEmpty()) {
+				continue;
+			}
+			if (allRecipes == null) {
+				if (firstRecipes.isEmpty()) {
+					firstRecipes = recipes;
+					continue;
+				}
+				allRecipes = new ArrayList<>(firstRecipes.size() + recipes.size());
+				addVisibleRecipes(allRecipes, firstRecipes, hiddenRecipes);
+			}
+			addVisibleRecipes(allRecipes, recipes, hiddenRecipes);
+		}
+
+		if (allRecipes == null) {
+			if (hiddenRecipes.isEmpty()) {
+				return Collections.unmodifiableList(firstRecipes);
+			}
+			allRecipes = new ArrayList<>(firstRecipes.size());
+			addVisibleRecipes(allRecipes, firstRecipes, hiddenRecipes);
+		}
+		return Collections.unmodifiableList(allRecipes);
 	}
 
-	private <T> List<Object> getRecipeCatalysts(IRecipeCategory<T> recipeCategory, boolean includeHidden) {
+	private static <T> void addVisibleRecipes(List<T> allRecipes, List<T> recipes, Set<T> hiddenRecipes) {
+		if (hiddenRecipes.isEmpty()) {
+			allRecipes.addAll(recipes);
+		} else {
+			for (T recipe : recipes) {
+				if (!hiddenRecipes.contains(recipe)) {
+					allRecipes.add(recipe);
+				}
+			}
+		}
+	}
+
+	@Override
+	public List<Object> getRecipeCatalysts(IRecipeCategory<?> recipeCategory) {
 		ErrorUtil.checkNotNull(recipeCategory, "recipeCategory");
-		RecipeCategoryData<T> recipeCategoryData = recipeCategoriesDataMap.get(recipeCategory);
+		RecipeCategoryData<?> recipeCategoryData = recipeCategoriesDataMap.get(recipeCategory);
 		ImmutableList<Object> catalysts = recipeCategoryData.getRecipeCatalysts();
-		if (includeHidden) {
-			return catalysts;
-		}
 		List<Object> visibleCatalysts = new ArrayList<>();
 		IngredientFilter ingredientFilter = Internal.getIngredientFilter();
 		for (Object catalyst : catalysts) {
@@ -277,11 +402,6 @@ public class RecipeManager implements IRecipeManager {
 		return visibleCatalysts;
 	}
 
-	@Override
-	public List<Object> getRecipeCatalysts(IRecipeCategory<?> recipeCategory) {
-		return getRecipeCatalysts(recipeCategory, false);
-	}
-
 	@Override
 	public <T> IRecipeLayoutDrawable createRecipeLayoutDrawable(IRecipeCategory<T> recipeCategory, T recipe, IFocus<?> focus) {
 		Focus<?> checkedFocus = Focus.check(focus);
@@ -298,7 +418,7 @@ public class RecipeManager implements IRecipeManager {
 		RecipeCategoryData<T> recipeCategoryData = recipeCategoriesDataMap.get(recipe, recipeCategoryUid);
 		Set<T> hiddenRecipes = recipeCategoryData.getHiddenRecipes();
 		hiddenRecipes.add(recipe);
-		recipeCategoriesVisibleCache.clear();
+		invalidateCaches();
 	}
 
 	@Override
@@ -309,17 +429,16 @@ public class RecipeManager implements IRecipeManager {
 		RecipeCategoryData<T> recipeCategoryData = recipeCategoriesDataMap.get(recipe, recipeCategoryUid);
 		Set<T> hiddenRecipes = recipeCategoryData.getHiddenRecipes();
 		hiddenRecipes.remove(recipe);
-		recipeCategoriesVisibleCache.clear();
+		invalidateCaches();
 	}
 
 	@Override
 	public void hideRecipeCategory(ResourceLocation recipeCategoryUid) {
 		ErrorUtil.checkNotNull(recipeCategoryUid, "recipeCategoryUid");
 		ErrorUtil.assertMainThread();
-		RecipeCategoryData<?> recipeCategoryData = recipeCategoriesDataMap.get(recipeCategoryUid);
-		IRecipeCategory<?> recipeCategory = recipeCategoryData.getRecipeCategory();
+		recipeCategoriesDataMap.validate(recipeCategoryUid);
 		hiddenRecipeCategoryUids.add(recipeCategoryUid);
-		recipeCategoriesVisibleCache.remove(recipeCategory);
+		invalidateCaches();
 	}
 
 	@Override
@@ -328,6 +447,6 @@ public class RecipeManager implements IRecipeManager {
 		ErrorUtil.assertMainThread();
 		recipeCategoriesDataMap.validate(recipeCategoryUid);
 		hiddenRecipeCategoryUids.remove(recipeCategoryUid);
-		recipeCategoriesVisibleCache.clear();
+		invalidateCaches();
 	}
 }
@@ -1,6 +1,9 @@
 package mezz.jei.recipes;
 
 import com.google.common.collect.ImmutableList;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import mezz.jei.api.constants.VanillaTypes;
 import mezz.jei.api.ingredients.IIngredientHelper;
 import mezz.jei.api.ingredients.IIngredientType;
 import mezz.jei.api.ingredients.subtypes.UidContext;
@@ -10,21 +13,37 @@ import mezz.jei.collect.ListMultiMap;
 import mezz.jei.collect.Table;
 import mezz.jei.ingredients.IngredientInformation;
 import mezz.jei.ingredients.IngredientsForType;
+import net.minecraft.item.ItemStack;
 import net.minecraft.util.ResourceLocation;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 /**
  * A RecipeMap efficiently links recipes, IRecipeCategory, and Ingredients.
+ *
+ * Recipe slots holding exactly the items of an item tag are indexed once under the tag,
+ * and found by looking up the tags of an ingredient.
  */
 public class RecipeMap {
 	private final Table<IRecipeCategory<?>, String, List<Object>> recipeTable = Table.hashBasedTable();
 	private final ListMultiMap<String, ResourceLocation> categoryUidMap = new ListMultiMap<>();
+	private final Table<IRecipeCategory<?>, ResourceLocation, List<Object>> recipeTagTable = Table.hashBasedTable();
+	private final ListMultiMap<ResourceLocation, ResourceLocation> categoryTagMap = new ListMultiMap<>();
+	/**
+	 * The order recipes were added in, used to merge the recipes found by uid and by tag in that order.
+	 */
+	private final Reference2IntMap<Object> recipeSequence = new Reference2IntOpenHashMap<>();
+	@Nullable
+	private ItemTagSlots itemTagSlots;
 	private final Comparator<ResourceLocation> recipeCategoryUidComparator;
 	private final IIngredientManager ingredientManager;
 
@@ -41,36 +60,95 @@ public class RecipeMap {
 		for (String key : IngredientInformation.getUniqueIdsWithWildcard(ingredientHelper, ingredient, UidContext.Recipe)) {
 			recipeCategories.addAll(categoryUidMap.get(key));
 		}
+		for (ResourceLocation tag : getIndexedTags(ingredient, ingredientHelper)) {
+			if (categoryTagMap.containsKey(tag)) {
+				recipeCategories.addAll(categoryTagMap.get(tag));
+			}
+		}
 
 		return ImmutableList.sortedCopyOf(recipeCategoryUidComparator, recipeCategories);
 	}
 
 	public <V> void addRecipeCategory(IRecipeCategory<?> recipeCategory, V ingredient, IIngredientHelper<V> ingredientHelper) {
 		String key = ingredientHelper.getUniqueId(ingredient, UidContext.Recipe);
-		List<ResourceLocation> recipeCategories = categoryUidMap.get(key);
+		addRecipeCategory(categoryUidMap.get(key), recipeCategory);
+	}
+
+	private static void addRecipeCategory(List<ResourceLocation> recipeCategories, IRecipeCategory<?> recipeCategory) {
 		ResourceLocation recipeCategoryUid = recipeCategory.getUid();
 		if (!recipeCategories.contains(recipeCategoryUid)) {
 			recipeCategories.add(recipeCategoryUid);
 		}
 	}
 
+	private <V> Collection<ResourceLocation> getIndexedTags(V ingredient, IIngredientHelper<V> ingredientHelper) {
+		if (categoryTagMap.keySet().isEmpty() || !(ingredient instanceof ItemStack)) {
+			return Collections.emptyList();
+		}
+		return ingredientHelper.getTags(ingredient);
+	}
+
 	public <T, V> ImmutableList<T> getRecipes(IRecipeCategory<T> recipeCategory, V ingredient) {
 		IIngredientHelper<V> ingredientHelper = ingredientManager.getIngredientHelper(ingredient);
 
 		Map<String, List<Object>> recipesForType = recipeTable.getRow(recipeCategory);
 
+		List<String> keys = IngredientInformation.getUniqueIdsWithWildcard(ingredientHelper, ingredient, UidContext.Recipe);
+		List<T> ownRecipes = getRecipes(recipesForType, keys.get(0));
+		List<T> recipesWithTags = getRecipesWithTags(recipeCategory, ingredient, ingredientHelper, ownRecipes);
+
 		ImmutableList.Builder<T> listBuilder = ImmutableList.builder();
-		for (String key : IngredientInformation.getUniqueIdsWithWildcard(ingredientHelper, ingredient, UidContext.Recipe)) {
+		listBuilder.addAll(recipesWithTags);
+		for (int i = 1; i < keys.size(); i++) {
+			listBuilder.addAll(getRecipes(recipesForType, keys.get(i)));
+		}
+		return listBuilder.build();
+	}
+
+	private static <T> List<T> getRecipes(Map<String, List<Object>> recipesForType, String key) {
+		@SuppressWarnings("unchecked")
+		List<T> recipes = (List<T>) recipesForType.get(key);
+		return recipes == null ? Collections.emptyList() : recipes;
+	}
+
+	/**
+	 * Before tag indexing, recipes using the ingredient in a tag slot were listed under the ingredient's own uid.
+	 * They are merged back into those recipes in registration order, so the order of recipes stays the same.
+	 */
+	private <T, V> List<T> getRecipesWithTags(IRecipeCategory<T> recipeCategory, V ingredient, IIngredientHelper<V> ingredientHelper, List<T> ownRecipes) {
+		Collection<ResourceLocation> tags = getIndexedTags(ingredient, ingredientHelper);
+		if (tags.isEmpty()) {
+			return ownRecipes;
+		}
+		Map<ResourceLocation, List<Object>> recipesForTags = recipeTagTable.getRow(recipeCategory);
+		if (recipesForTags.isEmpty()) {
+			return ownRecipes;
+		}
+		// a recipe may use the ingredient both in a tag slot and in a slot of its own
+		Set<Object> addedRecipes = Collections.newSetFromMap(new IdentityHashMap<>());
+		addedRecipes.addAll(ownRecipes);
+		List<T> recipes = new ArrayList<>(ownRecipes);
+		for (ResourceLocation tag : tags) {
 			@SuppressWarnings("unchecked")
-			List<T> recipes = (List<T>) recipesForType.get(key);
-			if (recipes != null) {
-				listBuilder.addAll(recipes);
+			List<T> tagRecipes = (List<T>) recipesForTags.get(tag);
+			if (tagRecipes != null) {
+				for (T recipe : tagRecipes) {
+					if (addedRecipes.add(recipe)) {
+						recipes.add(recipe);
+					}
+				}
 			}
 		}
-		return listBuilder.build();
+		if (recipes.size() > ownRecipes.size()) {
+			recipes.sort(Comparator.comparingInt(recipeSequence::getInt));
+		}
+		return recipes;
 	}
 
 	public <T> void addRecipe(T recipe, IRecipeCategory<T> recipeCategory, List<IngredientsForType<?>> ingredientsByType) {
+		if (!recipeSequence.containsKey(recipe)) {
+			recipeSequence.put(recipe, recipeSequence.size());
+		}
 		for (IngredientsForType<?> ingredientsForType : ingredientsByType) {
 			addRecipe(recipe, recipeCategory, ingredientsForType);
 		}
@@ -83,9 +161,18 @@ public class RecipeMap {
 		Map<String, List<Object>> recipesForType = recipeTable.getRow(recipeCategory);
 
 		Set<String> uniqueIds = new HashSet<>();
+		Set<ResourceLocation> tags = new HashSet<>();
 
 		List<List<V>> ingredients = ingredientsForType.getIngredients();
 		for (List<V> slot : ingredients) {
+			ResourceLocation tag = getSlotTag(ingredientType, slot);
+			if (tag != null) {
+				if (tags.add(tag)) {
+					recipeTagTable.computeIfAbsent(recipeCategory, tag, ArrayList::new).add(recipe);
+					addRecipeCategory(categoryTagMap.get(tag), recipeCategory);
+				}
+				continue;
+			}
 			for (V ingredient : slot) {
 				if (ingredient == null) {
 					continue;
@@ -107,4 +194,17 @@ public class RecipeMap {
 			}
 		}
 	}
+
+	@Nullable
+	private <V> ResourceLocation getSlotTag(IIngredientType<V> ingredientType, List<V> slot) {
+		if (ingredientType != VanillaTypes.ITEM) {
+			return null;
+		}
+		if (itemTagSlots == null) {
+			itemTagSlots = new ItemTagSlots(ingredientManager.getIngredientHelper(VanillaTypes.ITEM));
+		}
+		@SuppressWarnings("unchecked")
+		List<ItemStack> itemStackSlot = (List<ItemStack>) slot;
+		return itemTagSlots.getTag(itemStackSlot);
+	}
 }
@@ -40,6 +40,7 @@ import mezz.jei.util.ErrorUtil;
 public class IngredientListElementRenderer<T> {
 	private static final int BLACKLIST_COLOR = 0xFFFF0000;
 	private static final Rectangle2d DEFAULT_AREA = new Rectangle2d(0, 0, 16, 16);
+	private static final TooltipCache<ITextProperties> TOOLTIP_CACHE = new TooltipCache<>("Ingredient list");
 
 	protected final IIngredientListElement<T> element;
 	protected final IIngredientRenderer<T> ingredientRenderer;
@@ -99,7 +100,8 @@ public class IngredientListElementRenderer<T> {
 
 	public void drawTooltip(MatrixStack matrixStack, int mouseX, int mouseY, IIngredientFilterConfig ingredientFilterConfig, IWorldConfig worldConfig) {
 		T ingredient = element.getIngredient();
-		List<ITextProperties> tooltip = getTooltip(ingredientFilterConfig, worldConfig);
+		int tooltipState = (worldConfig.isEditModeEnabled() ? 1 : 0) | (ingredientFilterConfig.getColorSearchMode().ordinal() << 1);
+		List<ITextProperties> tooltip = TOOLTIP_CACHE.get(element, ingredient, tooltipState, () -> getTooltip(ingredientFilterConfig, worldConfig));
 		Minecraft minecraft = Minecraft.getInstance();
 		FontRenderer fontRenderer = ingredientRenderer.getFontRenderer(minecraft, ingredient);
 		TooltipRenderer.drawHoveringText(ingredient, tooltip, mouseX, mouseY, fontRenderer, matrixStack);
@@ -168,6 +170,11 @@ public class IngredientListElementRenderer<T> {
 		TranslationTextComponent hideWild = new TranslationTextComponent("gui.jei.editMode.description.hide.wild", controlKeyLocalization);
 		IFormattableTextComponent hideWildMessage = hideWild.mergeStyle(TextFormatting.GRAY);
 		tooltip.addAll(minecraft.fontRenderer.func_238420_b_().func_238362_b_(hideWildMessage, maxWidth, Style.EMPTY));
+
+		TranslationTextComponent shiftKeyLocalization = new TranslationTextComponent("key.jei.shift");
+		TranslationTextComponent hideMod = new TranslationTextComponent("gui.jei.editMode.description.hide.mod", shiftKeyLocalization);
+		IFormattableTextComponent hideModMessage = hideMod.mergeStyle(TextFormatting.GRAY);
+		tooltip.addAll(minecraft.fontRenderer.func_238420_b_().func_238362_b_(hideModMessage, maxWidth, Style.EMPTY));
 	}
 
 }
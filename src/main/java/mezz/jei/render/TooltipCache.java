@@ -0,0 +1,101 @@
+package mezz.jei.render;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.function.Supplier;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.screen.Screen;
+
+import mezz.jei.config.ClientConfig;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Remembers the last tooltip that was built, so it is not rebuilt every frame while the mouse stays on the same ingredient.
+ * The tooltip is rebuilt when the hovered ingredient or any modifier key changes,
+ * and after a short time so that tooltips with changing contents still update.
+ */
+public class TooltipCache<L> {
+	private static final Logger LOGGER = LogManager.getLogger();
+	private static final long MAX_AGE_MS = 500;
+	private static final int DEBUG_LOG_INTERVAL = 100;
+
+	private final String name;
+	@Nullable
+	private Object owner;
+	@Nullable
+	private Object value;
+	private int state;
+	private long createdTime;
+	@Nullable
+	private List<L> tooltip;
+
+	private int builds;
+	private int hits;
+	private long buildNanos;
+
+	public TooltipCache(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * @param owner      the element or slot showing the tooltip, compared by identity
+	 * @param value      the ingredient shown in the tooltip, compared by identity
+	 * @param extraState any other state the tooltip depends on, like the edit mode
+	 * @param builder    builds the tooltip when there is no matching cached one
+	 */
+	public List<L> get(Object owner, Object value, int extraState, Supplier<List<L>> builder) {
+		int state = getModifierState() | (extraState << 4);
+		long now = System.currentTimeMillis();
+		if (tooltip != null &&
+			this.owner == owner &&
+			this.value == value &&
+			this.state == state &&
+			now - createdTime < MAX_AGE_MS) {
+			hits++;
+			return tooltip;
+		}
+
+		long start = System.nanoTime();
+		List<L> tooltip = builder.get();
+		onBuilt(System.nanoTime() - start);
+
+		this.owner = owner;
+		this.value = value;
+		this.state = state;
+		this.createdTime = now;
+		this.tooltip = tooltip;
+		return tooltip;
+	}
+
+	private void onBuilt(long elapsedNanos) {
+		builds++;
+		buildNanos += elapsedNanos;
+		if (builds >= DEBUG_LOG_INTERVAL) {
+			if (ClientConfig.getInstance().isDebugModeEnabled()) {
+				LOGGER.info("{} tooltips: {} built in {} ms total, {} reused from cache", name, builds, buildNanos / 1_000_000.0, hits);
+			}
+			builds = 0;
+			hits = 0;
+			buildNanos = 0;
+		}
+	}
+
+	private static int getModifierState() {
+		int state = 0;
+		if (Screen.hasShiftDown()) {
+			state |= 1;
+		}
+		if (Screen.hasControlDown()) {
+			state |= 1 << 1;
+		}
+		if (Screen.hasAltDown()) {
+			state |= 1 << 2;
+		}
+		if (Minecraft.getInstance().gameSettings.advancedItemTooltips) {
+			state |= 1 << 3;
+		}
+		return state;
+	}
+}
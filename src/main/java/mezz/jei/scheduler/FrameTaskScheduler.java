@@ -0,0 +1,157 @@
+package mezz.jei.scheduler;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import net.minecraft.client.Minecraft;
+import net.minecraftforge.event.TickEvent;
+
+import mezz.jei.config.ClientConfig;
+import mezz.jei.events.EventBusHelper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Runs JEI's incremental client-side work in small slices after each frame,
+ * so that it never takes more than a fraction of the time available for a frame.
+ */
+public final class FrameTaskScheduler {
+	private static final Logger LOGGER = LogManager.getLogger();
+	private static final FrameTaskScheduler INSTANCE = new FrameTaskScheduler();
+	/**
+	 * Fraction of each frame that queued tasks may use.
+	 */
+	private static final double FRAME_BUDGET_FRACTION = 0.2;
+	private static final long MIN_FRAME_BUDGET_NANOS = 500_000;
+	/**
+	 * The highest frame rate limit setting means "unlimited".
+	 * Budget for a fast monitor in that case.
+	 */
+	private static final int UNLIMITED_FRAMERATE_SETTING = 260;
+	private static final int UNLIMITED_FRAMERATE_TARGET = 144;
+	private static final long STATS_INTERVAL_NANOS = 1_000_000_000L;
+
+	public static FrameTaskScheduler getInstance() {
+		return INSTANCE;
+	}
+
+	private final List<ScheduledTask> tasks = new ArrayList<>();
+	private final Map<String, TaskStats> stats = new LinkedHashMap<>();
+	private boolean listening;
+	private long statsStartTime = System.nanoTime();
+
+	private FrameTaskScheduler() {
+	}
+
+	/**
+	 * Queue a task to be run in slices after each frame until it is finished.
+	 *
+	 * @param name used to report how much time the task takes
+	 */
+	public void schedule(String name, TaskPriority priority, IFrameTask task) {
+		ScheduledTask scheduledTask = new ScheduledTask(name, priority, task);
+		int index = 0;
+		while (index < tasks.size() && tasks.get(index).priority.compareTo(priority) <= 0) {
+			index++;
+		}
+		tasks.add(index, scheduledTask);
+
+		if (!listening) {
+			EventBusHelper.addListener(TickEvent.RenderTickEvent.class, this::onRenderTick);
+			listening = true;
+		}
+	}
+
+	private void onRenderTick(TickEvent.RenderTickEvent event) {
+		if (event.phase != TickEvent.Phase.END) {
+			return;
+		}
+		if (!tasks.isEmpty()) {
+			runTasks(System.nanoTime() + getFrameBudgetNanos());
+		}
+		logStats();
+	}
+
+	private void runTasks(long deadlineNanos) {
+		int index = 0;
+		while (index < tasks.size()) {
+			ScheduledTask scheduledTask = tasks.get(index);
+			long startTime = System.nanoTime();
+			boolean finished;
+			try {
+				finished = scheduledTask.task.run(deadlineNanos);
+			} catch (RuntimeException e) {
+				LOGGER.error("Background task failed: {}", scheduledTask.name, e);
+				finished = true;
+			}
+			long endTime = System.nanoTime();
+			stats.computeIfAbsent(scheduledTask.name, k -> new TaskStats())
+				.add(endTime - startTime);
+
+			if (finished) {
+				tasks.remove(index);
+			} else {
+				// an unfinished task that returned before the deadline is waiting for something,
+				// give the time that is left to the tasks after it
+				index++;
+			}
+			if (endTime >= deadlineNanos) {
+				return;
+			}
+		}
+	}
+
+	private static long getFrameBudgetNanos() {
+		int framerateLimit = Minecraft.getInstance().gameSettings.framerateLimit;
+		if (framerateLimit <= 0 || framerateLimit >= UNLIMITED_FRAMERATE_SETTING) {
+			framerateLimit = UNLIMITED_FRAMERATE_TARGET;
+		}
+		long frameNanos = 1_000_000_000L / framerateLimit;
+		return Math.max(MIN_FRAME_BUDGET_NANOS, (long) (frameNanos * FRAME_BUDGET_FRACTION));
+	}
+
+	private void logStats() {
+		long now = System.nanoTime();
+		if (now - statsStartTime < STATS_INTERVAL_NANOS) {
+			return;
+		}
+		statsStartTime = now;
+		if (stats.isEmpty()) {
+			return;
+		}
+		if (ClientConfig.getInstance().isDebugModeEnabled()) {
+			StringJoiner summary = new StringJoiner(", ");
+			for (Map.Entry<String, TaskStats> entry : stats.entrySet()) {
+				TaskStats taskStats = entry.getValue();
+				summary.add(String.format("%s: %.2f ms in %d slices", entry.getKey(), taskStats.nanos / 1_000_000.0, taskStats.slices));
+			}
+			LOGGER.info("Background tasks in the last second: {}. {} tasks queued.", summary, tasks.size());
+		}
+		stats.clear();
+	}
+
+	private static final class ScheduledTask {
+		private final String name;
+		private final TaskPriority priority;
+		private final IFrameTask task;
+
+		public ScheduledTask(String name, TaskPriority priority, IFrameTask task) {
+			this.name = name;
+			this.priority = priority;
+			this.task = task;
+		}
+	}
+
+	private static final class TaskStats {
+		private long nanos;
+		private int slices;
+
+		public void add(long elapsedNanos) {
+			nanos += elapsedNanos;
+			slices++;
+		}
+	}
+}
@@ -0,0 +1,15 @@
+package mezz.jei.scheduler;
+
+/**
+ * A piece of work that is done a little at a time on the client thread, between frames.
+ */
+@FunctionalInterface
+public interface IFrameTask {
+	/**
+	 * Do some work, returning once {@link System#nanoTime()} reaches the deadline.
+	 * A task that is waiting for something can return early, and the rest of the time goes to the tasks queued after it.
+	 *
+	 * @return true if the task is finished, false if there is more work to do in a later frame.
+	 */
+	boolean run(long deadlineNanos);
+}
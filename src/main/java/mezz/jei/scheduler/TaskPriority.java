@@ -0,0 +1,8 @@
+package mezz.jei.scheduler;
+
+/**
+ * Higher priority tasks run first. Tasks with the same priority run in the order they were scheduled.
+ */
+public enum TaskPriority {
+	HIGH, NORMAL, LOW
+}
@@ -9,13 +9,21 @@ import mezz.jei.search.suffixtree.GeneralizedSuffixTree;
 import net.minecraft.util.NonNullList;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 public class ElementSearch implements IElementSearch {
+	/**
+	 * Number of elements whose search strings are gathered at once in {@link #addAll}.
+	 * Limits how many strings are held in memory before they are added to the suffix trees.
+	 */
+	private static final int ADD_ALL_BATCH_SIZE = 4096;
+
 	private final GeneralizedSuffixTree noPrefixSearchable;
 	private final Map<PrefixInfo, PrefixedSearchable<GeneralizedSuffixTree>> prefixedSearchables = new IdentityHashMap<>();
 	private final IngredientFilterBackgroundBuilder backgroundBuilder;
@@ -76,6 +84,61 @@ public class ElementSearch implements IElementSearch {
 		}
 	}
 
+	@Override
+	public void addAll(List<IIngredientListElementInfo<?>> infos) {
+		List<PrefixedSearchable<GeneralizedSuffixTree>> parallelSearchables = new ArrayList<>();
+		List<PrefixedSearchable<GeneralizedSuffixTree>> mainThreadSearchables = new ArrayList<>();
+		for (PrefixedSearchable<GeneralizedSuffixTree> prefixedSearchable : this.prefixedSearchables.values()) {
+			if (prefixedSearchable.getMode() != SearchMode.DISABLED) {
+				if (prefixedSearchable.isThreadSafe()) {
+					parallelSearchables.add(prefixedSearchable);
+				} else {
+					mainThreadSearchables.add(prefixedSearchable);
+				}
+			}
+		}
+
+		for (int batchStart = 0; batchStart < infos.size(); batchStart += ADD_ALL_BATCH_SIZE) {
+			List<IIngredientListElementInfo<?>> batch = infos.subList(batchStart, Math.min(batchStart + ADD_ALL_BATCH_SIZE, infos.size()));
+			// only the strings that the element infos already hold are gathered in parallel,
+			// the others (tooltips, tags, creative tabs, colors) run mod code and are gathered on this thread.
+			// the suffix trees are not thread-safe so they are filled in order afterwards
+			List<List<Collection<String>>> batchStrings = batch.parallelStream()
+				.map(info -> {
+					List<Collection<String>> strings = new ArrayList<>(parallelSearchables.size() + 1);
+					strings.add(PrefixInfo.NO_PREFIX.getStrings(info));
+					for (PrefixedSearchable<GeneralizedSuffixTree> prefixedSearchable : parallelSearchables) {
+						strings.add(prefixedSearchable.getStrings(info));
+					}
+					return strings;
+				})
+				.collect(Collectors.toList());
+
+			for (int i = 0; i < batch.size(); i++) {
+				IIngredientListElementInfo<?> info = batch.get(i);
+				int index = this.elementInfoList.size();
+				this.elementInfoList.add(info);
+
+				List<Collection<String>> strings = batchStrings.get(i);
+				for (String string : strings.get(0)) {
+					this.noPrefixSearchable.put(string, index);
+				}
+				for (int j = 0; j < parallelSearchables.size(); j++) {
+					GeneralizedSuffixTree searchable = parallelSearchables.get(j).getSearchable();
+					for (String string : strings.get(j + 1)) {
+						searchable.put(string, index);
+					}
+				}
+				for (PrefixedSearchable<GeneralizedSuffixTree> prefixedSearchable : mainThreadSearchables) {
+					GeneralizedSuffixTree searchable = prefixedSearchable.getSearchable();
+					for (String string : prefixedSearchable.getStrings(info)) {
+						searchable.put(string, index);
+					}
+				}
+			}
+		}
+	}
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public <V> IIngredientListElementInfo<V> get(int index) {
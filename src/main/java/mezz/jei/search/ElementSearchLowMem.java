@@ -55,6 +55,11 @@ public class ElementSearchLowMem implements IElementSearch {
 		this.elementInfoList.add(info);
 	}
 
+	@Override
+	public void addAll(List<IIngredientListElementInfo<?>> infos) {
+		this.elementInfoList.addAll(infos);
+	}
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public <V> IIngredientListElementInfo<V> get(int index) {
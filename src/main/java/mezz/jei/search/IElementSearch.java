@@ -9,6 +9,11 @@ import java.util.List;
 public interface IElementSearch {
 	<V> void add(IIngredientListElementInfo<V> info);
 
+	/**
+	 * Adds all the elements in order, the same as calling {@link #add} for each one.
+	 */
+	void addAll(List<IIngredientListElementInfo<?>> infos);
+
 	<V> IIngredientListElementInfo<V> get(int index);
 
 	<V> int indexOf(IIngredientListElementInfo<V> ingredient);
@@ -9,14 +9,25 @@ import java.util.Collections;
 public class PrefixInfo {
 	public static final PrefixInfo NO_PREFIX = new PrefixInfo(
 		() -> SearchMode.ENABLED,
-		i -> Collections.singleton(i.getName())
+		i -> Collections.singleton(i.getName()),
+		true
 	);
 	private final IModeGetter modeGetter;
 	private final IStringsGetter stringsGetter;
+	private final boolean threadSafe;
 
 	public PrefixInfo(IModeGetter modeGetter, IStringsGetter stringsGetter) {
+		this(modeGetter, stringsGetter, false);
+	}
+
+	/**
+	 * @param threadSafe true if the strings only come from values the element info already holds,
+	 *                   so getting them off the main thread can't run any mod code.
+	 */
+	public PrefixInfo(IModeGetter modeGetter, IStringsGetter stringsGetter, boolean threadSafe) {
 		this.modeGetter = modeGetter;
 		this.stringsGetter = stringsGetter;
+		this.threadSafe = threadSafe;
 	}
 
 	public SearchMode getMode() {
@@ -27,6 +38,10 @@ public class PrefixInfo {
 		return this.stringsGetter.getStrings(element);
 	}
 
+	public boolean isThreadSafe() {
+		return threadSafe;
+	}
+
 	@FunctionalInterface
 	public interface IStringsGetter {
 		Collection<String> getStrings(IIngredientListElementInfo<?> element);
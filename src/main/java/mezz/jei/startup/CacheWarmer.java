@@ -0,0 +1,165 @@
+package mezz.jei.startup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.ItemModelMesher;
+import net.minecraft.client.renderer.model.IBakedModel;
+import net.minecraft.item.ItemStack;
+
+import mezz.jei.Internal;
+import mezz.jei.api.recipe.IFocus;
+import mezz.jei.bookmarks.BookmarkList;
+import mezz.jei.config.IWorldConfig;
+import mezz.jei.gui.Focus;
+import mezz.jei.gui.ingredients.IIngredientListElement;
+import mezz.jei.ingredients.IngredientFilter;
+import mezz.jei.recipes.RecipeManager;
+import mezz.jei.scheduler.IFrameTask;
+import mezz.jei.util.LoggedTimer;
+
+/**
+ * Does the work that would otherwise happen the first time the ingredient list or a recipe lookup is shown,
+ * a little at a time while the player is in the world without a screen open.
+ */
+final class CacheWarmer implements IFrameTask {
+	/**
+	 * Roughly the first few pages of a large ingredient list.
+	 */
+	private static final int MODEL_WARM_UP_COUNT = 500;
+	/**
+	 * Number of ingredients from the start of the list to look up recipe categories for, in addition to the bookmarks.
+	 */
+	private static final int FOCUS_WARM_UP_COUNT = 50;
+
+	private final IngredientFilter ingredientFilter;
+	private final RecipeManager recipeManager;
+	private final BookmarkList bookmarkList;
+	private final IWorldConfig worldConfig;
+
+	private Stage stage = Stage.SORTED_LIST;
+	private List<IIngredientListElement<?>> ingredientList = Collections.emptyList();
+	private List<Object> focusIngredients = Collections.emptyList();
+	private int index;
+	private final LoggedTimer stageTimer = new LoggedTimer();
+	private boolean started;
+
+	public CacheWarmer(IngredientFilter ingredientFilter, RecipeManager recipeManager, BookmarkList bookmarkList, IWorldConfig worldConfig) {
+		this.ingredientFilter = ingredientFilter;
+		this.recipeManager = recipeManager;
+		this.bookmarkList = bookmarkList;
+		this.worldConfig = worldConfig;
+	}
+
+	@Override
+	public boolean run(long deadlineNanos) {
+		if (Internal.getIngredientFilter() != ingredientFilter) {
+			// JEI was restarted, these caches are not used anymore
+			return true;
+		}
+		Minecraft minecraft = Minecraft.getInstance();
+		if (minecraft.player == null || minecraft.currentScreen != null) {
+			// only use idle time, the player may be using the caches right now
+			return false;
+		}
+
+		if (!started) {
+			started = true;
+			stageTimer.start("Warming up " + stage.description);
+		}
+		while (System.nanoTime() < deadlineNanos) {
+			if (!runStep(deadlineNanos)) {
+				finishStage();
+				if (stage == Stage.DONE) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return false if the current stage is finished.
+	 */
+	private boolean runStep(long deadlineNanos) {
+		switch (stage) {
+			case SORTED_LIST:
+				String filterText = worldConfig.getFilterText();
+				if (!ingredientFilter.buildIngredientList(filterText, deadlineNanos)) {
+					return true;
+				}
+				ingredientList = ingredientFilter.getIngredientList(filterText);
+				return false;
+			case ITEM_MODELS:
+				if (index >= Math.min(MODEL_WARM_UP_COUNT, ingredientList.size())) {
+					return false;
+				}
+				Object ingredient = ingredientList.get(index++).getIngredient();
+				if (ingredient instanceof ItemStack) {
+					resolveModel((ItemStack) ingredient);
+				}
+				return true;
+			case RECIPE_CATEGORIES:
+				if (index >= focusIngredients.size()) {
+					return false;
+				}
+				Object focusIngredient = focusIngredients.get(index++);
+				recipeManager.getRecipeCategories(new Focus<>(IFocus.Mode.OUTPUT, focusIngredient));
+				recipeManager.getRecipeCategories(new Focus<>(IFocus.Mode.INPUT, focusIngredient));
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	private void finishStage() {
+		stageTimer.stop();
+		index = 0;
+
+		stage = Stage.values()[stage.ordinal() + 1];
+		if (stage == Stage.DONE) {
+			return;
+		}
+		stageTimer.start("Warming up " + stage.description);
+		if (stage == Stage.RECIPE_CATEGORIES) {
+			focusIngredients = getFocusIngredients();
+		}
+	}
+
+	private List<Object> getFocusIngredients() {
+		List<Object> ingredients = new ArrayList<>();
+		for (IIngredientListElement<?> element : bookmarkList.getIngredientList("")) {
+			ingredients.add(element.getIngredient());
+		}
+		int count = Math.min(FOCUS_WARM_UP_COUNT, ingredientList.size());
+		for (int i = 0; i < count; i++) {
+			ingredients.add(ingredientList.get(i).getIngredient());
+		}
+		return ingredients;
+	}
+
+	private static void resolveModel(ItemStack itemStack) {
+		ItemModelMesher itemModelMesher = Minecraft.getInstance().getItemRenderer().getItemModelMesher();
+		try {
+			IBakedModel bakedModel = itemModelMesher.getItemModel(itemStack);
+			bakedModel.getOverrides().func_239290_a_(bakedModel, itemStack, null, null);
+		} catch (RuntimeException | LinkageError e) {
+			// the ingredient list will log this when it draws the ingredient
+		}
+	}
+
+	private enum Stage {
+		SORTED_LIST("sorted ingredient list"),
+		ITEM_MODELS("item models"),
+		RECIPE_CATEGORIES("recipe categories"),
+		DONE("");
+
+		private final String description;
+
+		Stage(String description) {
+			this.description = description;
+		}
+	}
+}
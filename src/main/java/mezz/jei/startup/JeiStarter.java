@@ -36,6 +36,8 @@ import mezz.jei.plugins.vanilla.VanillaPlugin;
 import mezz.jei.recipes.RecipeManager;
 import mezz.jei.recipes.RecipeTransferManager;
 import mezz.jei.runtime.JeiRuntime;
+import mezz.jei.scheduler.FrameTaskScheduler;
+import mezz.jei.scheduler.TaskPriority;
 import mezz.jei.util.ErrorUtil;
 import mezz.jei.util.LoggedTimer;
 
@@ -105,6 +107,11 @@ public class JeiStarter {
 
 		started = true;
 		totalTime.stop();
+
+		if (clientConfig.isCacheWarmUpEnabled()) {
+			CacheWarmer cacheWarmer = new CacheWarmer(ingredientFilter, recipeManager, bookmarkList, worldConfig);
+			FrameTaskScheduler.getInstance().schedule("Cache warm-up", TaskPriority.LOW, cacheWarmer);
+		}
 	}
 
 	public boolean hasStarted() {
@@ -15,7 +15,6 @@ import net.minecraft.item.ItemStack;
 import mezz.jei.api.gui.IRecipeLayout;
 import mezz.jei.api.gui.ingredient.IGuiIngredient;
 import mezz.jei.api.gui.ingredient.IGuiItemStackGroup;
-import mezz.jei.api.helpers.IStackHelper;
 import mezz.jei.api.recipe.transfer.IRecipeTransferError;
 import mezz.jei.api.recipe.transfer.IRecipeTransferHandler;
 import mezz.jei.api.recipe.transfer.IRecipeTransferHandlerHelper;
@@ -30,12 +29,10 @@ import org.apache.logging.log4j.Logger;
 public class BasicRecipeTransferHandler<C extends Container> implements IRecipeTransferHandler<C> {
 	private static final Logger LOGGER = LogManager.getLogger();
 
-	private final IStackHelper stackHelper;
 	private final IRecipeTransferHandlerHelper handlerHelper;
 	private final IRecipeTransferInfo<C> transferHelper;
 
-	public BasicRecipeTransferHandler(IStackHelper stackHelper, IRecipeTransferHandlerHelper handlerHelper, IRecipeTransferInfo<C> transferHelper) {
-		this.stackHelper = stackHelper;
+	public BasicRecipeTransferHandler(IRecipeTransferHandlerHelper handlerHelper, IRecipeTransferInfo<C> transferHelper) {
 		this.handlerHelper = handlerHelper;
 		this.transferHelper = transferHelper;
 	}
@@ -80,7 +77,8 @@ public class BasicRecipeTransferHandler<C extends Container> implements IRecipeT
 			return handlerHelper.createInternalError();
 		}
 
-		Map<Integer, ItemStack> availableItemStacks = new HashMap<>();
+		ContainerSnapshot snapshot = ContainerSnapshot.get(container);
+		List<Integer> availableSlotNumbers = new ArrayList<>();
 		int filledCraftSlotCount = 0;
 		int emptySlotCount = 0;
 
@@ -92,18 +90,19 @@ public class BasicRecipeTransferHandler<C extends Container> implements IRecipeT
 					return handlerHelper.createInternalError();
 				}
 				filledCraftSlotCount++;
-				availableItemStacks.put(slot.slotNumber, stack.copy());
+				availableSlotNumbers.add(slot.slotNumber);
 			}
 		}
 
 		for (Slot slot : inventorySlots.values()) {
 			final ItemStack stack = slot.getStack();
 			if (!stack.isEmpty()) {
-				availableItemStacks.put(slot.slotNumber, stack.copy());
+				availableSlotNumbers.add(slot.slotNumber);
 			} else {
 				emptySlotCount++;
 			}
 		}
+		Collections.sort(availableSlotNumbers);
 
 		// check if we have enough inventory space to shuffle items around to their final locations
 		if (filledCraftSlotCount - inputCount > emptySlotCount) {
@@ -111,7 +110,7 @@ public class BasicRecipeTransferHandler<C extends Container> implements IRecipeT
 			return handlerHelper.createUserErrorWithTooltip(message);
 		}
 
-		RecipeTransferUtil.MatchingItemsResult matchingItemsResult = RecipeTransferUtil.getMatchingItems(stackHelper, availableItemStacks, itemStackGroup.getGuiIngredients());
+		RecipeTransferUtil.MatchingItemsResult matchingItemsResult = RecipeTransferUtil.getMatchingItems(snapshot, availableSlotNumbers, itemStackGroup.getGuiIngredients());
 
 		if (matchingItemsResult.missingItems.size() > 0) {
 			String message = Translator.translateToLocal("jei.tooltip.error.recipe.transfer.missing");
@@ -1,10 +1,11 @@
 package mezz.jei.transfer;
 
 import javax.annotation.Nonnull;
-import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -106,103 +107,82 @@ public final class BasicRecipeTransferHandlerServer {
 		boolean transferAsCompleteSets,
 		boolean maxTransfer
 	) {
-
-		// This map becomes populated with the resulting items to transfer and is returned by this method.
-		final Map<Integer, ItemStack> result = new HashMap<>(required.size());
-
-		loopSets:
-		while (true) { // for each set
-
-			// This map holds the original contents of a slot we have removed items from. This is used if we don't
-			// have enough items to complete a whole set, we can roll back the items that were removed.
-			Map<Slot, ItemStack> originalSlotContents = null;
-
-			if (transferAsCompleteSets) {
-				// We only need to create a new map for each set iteration if we're transferring as complete sets.
-				originalSlotContents = new HashMap<>();
+		TransferInventoryIndex inventoryIndex = new TransferInventoryIndex(player, container, craftingSlots, inventorySlots);
+
+		// Group the required crafting slots by the item they need, so each distinct item is counted and removed once.
+		Map<ItemStack, List<Integer>> requiredByItem = new LinkedHashMap<>();
+		for (Map.Entry<Integer, ItemStack> entry : required.entrySet()) {
+			ItemStack requiredStack = entry.getValue();
+			List<Integer> craftNumbers = null;
+			for (Map.Entry<ItemStack, List<Integer>> itemEntry : requiredByItem.entrySet()) {
+				ItemStack stack = itemEntry.getKey();
+				if (ItemStack.areItemsEqual(stack, requiredStack) && ItemStack.areItemStackTagsEqual(stack, requiredStack)) {
+					craftNumbers = itemEntry.getValue();
+					break;
+				}
 			}
+			if (craftNumbers == null) {
+				craftNumbers = new ArrayList<>();
+				requiredByItem.put(requiredStack, craftNumbers);
+			}
+			craftNumbers.add(entry.getKey());
+		}
 
-			// This map holds items found for each set iteration. Its contents are added to the result map
-			// after each complete set iteration. If we are transferring as complete sets, this allows
-			// us to simply ignore the map's contents when a complete set isn't found.
-			final Map<Integer, ItemStack> foundItemsInSet = new HashMap<>(required.size());
-
-			// This flag is set to false if at least one item is found during the set iteration. It is used
-			// to determine if iteration should continue and prevents an infinite loop if not transferring
-			// as complete sets.
-			boolean noItemsFound = true;
-
-			for (Map.Entry<Integer, ItemStack> entry : required.entrySet()) { // for each item in set
-				final ItemStack requiredStack = entry.getValue().copy();
-
-				// Locate a slot that has what we need.
-				final Slot slot = getSlotWithStack(container, requiredStack, craftingSlots, inventorySlots);
-
-				boolean itemFound = (slot != null) && !slot.getStack().isEmpty() && slot.canTakeStack(player);
-				ItemStack resultItemStack = result.get(entry.getKey());
-				boolean resultItemStackLimitReached = (resultItemStack != null) && (resultItemStack.getCount() == resultItemStack.getMaxStackSize());
-
-				if (!itemFound || resultItemStackLimitReached) {
-					// We can't find any more items to fulfill the requirements or the maximum stack size for this item
-					// has been reached.
-
-					if (transferAsCompleteSets) {
-						// Since the full set requirement wasn't satisfied, we need to roll back any
-						// slot changes we've made during this set iteration.
-						for (Map.Entry<Slot, ItemStack> slotEntry : originalSlotContents.entrySet()) {
-							ItemStack stack = slotEntry.getValue();
-							slotEntry.getKey().putStack(stack);
-						}
-						break loopSets;
-					}
-
-				} else { // the item was found and the stack limit has not been reached
-
-					// Keep a copy of the slot's original contents in case we need to roll back.
-					if (originalSlotContents != null && !originalSlotContents.containsKey(slot)) {
-						originalSlotContents.put(slot, slot.getStack().copy());
+		// Work out how many items go into each crafting slot before touching the inventory.
+		final Map<Integer, Integer> amounts = new HashMap<>(required.size());
+		if (transferAsCompleteSets) {
+			int sets = maxTransfer ? Integer.MAX_VALUE : 1;
+			for (Map.Entry<ItemStack, List<Integer>> itemEntry : requiredByItem.entrySet()) {
+				ItemStack stack = itemEntry.getKey();
+				int perSet = itemEntry.getValue().size();
+				int available = inventoryIndex.getCount(stack);
+				sets = Math.min(sets, Math.min(available / perSet, stack.getMaxStackSize()));
+			}
+			if (sets <= 0) {
+				return Collections.emptyMap();
+			}
+			for (Integer craftNumber : required.keySet()) {
+				amounts.put(craftNumber, sets);
+			}
+		} else {
+			// Hand out the available items one at a time to the crafting slots that need them,
+			// until each slot reaches the maximum stack size or the items run out.
+			for (Map.Entry<ItemStack, List<Integer>> itemEntry : requiredByItem.entrySet()) {
+				ItemStack stack = itemEntry.getKey();
+				List<Integer> craftNumbers = itemEntry.getValue();
+				int available = inventoryIndex.getCount(stack);
+				int maxStackSize = stack.getMaxStackSize();
+				int rounds = Math.min(maxStackSize, available / craftNumbers.size());
+				int remainder = rounds < maxStackSize ? available - (rounds * craftNumbers.size()) : 0;
+				for (int i = 0; i < craftNumbers.size(); i++) {
+					int amount = rounds + (i < remainder ? 1 : 0);
+					if (amount > 0) {
+						amounts.put(craftNumbers.get(i), amount);
 					}
-
-					// Reduce the size of the found slot.
-					ItemStack removedItemStack = slot.decrStackSize(1);
-					foundItemsInSet.put(entry.getKey(), removedItemStack);
-
-					noItemsFound = false;
 				}
 			}
+		}
 
-			// Merge the contents of the temporary map with the result map.
-			for (Map.Entry<Integer, ItemStack> entry : foundItemsInSet.entrySet()) {
-				ItemStack resultItemStack = result.get(entry.getKey());
-
-				if (resultItemStack == null) {
-					result.put(entry.getKey(), entry.getValue());
-
-				} else {
-					resultItemStack.grow(1);
-				}
+		// Remove the items in bulk and split them up between the crafting slots.
+		final Map<Integer, ItemStack> result = new HashMap<>(required.size());
+		for (Map.Entry<ItemStack, List<Integer>> itemEntry : requiredByItem.entrySet()) {
+			List<Integer> craftNumbers = itemEntry.getValue();
+			int total = 0;
+			for (Integer craftNumber : craftNumbers) {
+				total += amounts.getOrDefault(craftNumber, 0);
 			}
-
-			if (!maxTransfer || noItemsFound) {
-				// If max transfer is not requested by the player this will exit the loop after trying one set.
-				// If no items were found during this iteration, we're done.
-				break;
+			ItemStack removed = inventoryIndex.remove(itemEntry.getKey(), total);
+			for (Integer craftNumber : craftNumbers) {
+				int amount = Math.min(amounts.getOrDefault(craftNumber, 0), removed.getCount());
+				if (amount > 0) {
+					result.put(craftNumber, removed.split(amount));
+				}
 			}
 		}
 
 		return result;
 	}
 
-	@Nullable
-	private static Slot getSlotWithStack(Container container, ItemStack stack, List<Integer> craftingSlots, List<Integer> inventorySlots) {
-		Slot slot = getSlotWithStack(container, craftingSlots, stack);
-		if (slot == null) {
-			slot = getSlotWithStack(container, inventorySlots, stack);
-		}
-
-		return slot;
-	}
-
 	private static int addStack(Container container, Collection<Integer> slotIndexes, ItemStack stack) {
 		int added = 0;
 		// Add to existing stacks first
@@ -255,26 +235,4 @@ public final class BasicRecipeTransferHandlerServer {
 
 		return added;
 	}
-
-	/**
-	 * Get the slot which contains a specific itemStack.
-	 *
-	 * @param container   the container to search
-	 * @param slotNumbers the slots in the container to search
-	 * @param itemStack   the itemStack to find
-	 * @return the slot that contains the itemStack. returns null if no slot contains the itemStack.
-	 */
-	@Nullable
-	private static Slot getSlotWithStack(Container container, Iterable<Integer> slotNumbers, ItemStack itemStack) {
-		for (Integer slotNumber : slotNumbers) {
-			if (slotNumber >= 0 && slotNumber < container.inventorySlots.size()) {
-				Slot slot = container.getSlot(slotNumber);
-				ItemStack slotStack = slot.getStack();
-				if (ItemStack.areItemsEqual(itemStack, slotStack) && ItemStack.areItemStackTagsEqual(itemStack, slotStack)) {
-					return slot;
-				}
-			}
-		}
-		return null;
-	}
 }
@@ -0,0 +1,106 @@
+package mezz.jei.transfer;
+
+import javax.annotation.Nullable;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.minecraft.inventory.container.Container;
+import net.minecraft.inventory.container.Slot;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+
+import mezz.jei.Internal;
+import mezz.jei.api.constants.VanillaTypes;
+import mezz.jei.api.ingredients.IIngredientHelper;
+import mezz.jei.api.ingredients.subtypes.UidContext;
+
+/**
+ * The contents of a container's slots, indexed by ingredient uid.
+ * Every recipe transfer button on the recipe screen checks the same container,
+ * so the snapshot is shared between them and only rebuilt when the container's contents change.
+ * The container is only held weakly, so the last snapshot does not keep a closed container alive.
+ */
+public final class ContainerSnapshot {
+	@Nullable
+	private static ContainerSnapshot lastSnapshot;
+
+	public static ContainerSnapshot get(Container container) {
+		ContainerSnapshot snapshot = lastSnapshot;
+		if (snapshot == null || !snapshot.isUpToDate(container)) {
+			IIngredientHelper<ItemStack> ingredientHelper = Internal.getIngredientManager().getIngredientHelper(VanillaTypes.ITEM);
+			snapshot = new ContainerSnapshot(container, ingredientHelper);
+			lastSnapshot = snapshot;
+		}
+		return snapshot;
+	}
+
+	private final WeakReference<Container> container;
+	private final IIngredientHelper<ItemStack> ingredientHelper;
+	private final ItemStack[] stacks;
+	private final int[] counts;
+	private final Set<Item> items = new HashSet<>();
+	private final Map<String, List<Integer>> slotNumbersByUid = new HashMap<>();
+
+	private ContainerSnapshot(Container container, IIngredientHelper<ItemStack> ingredientHelper) {
+		this.container = new WeakReference<>(container);
+		this.ingredientHelper = ingredientHelper;
+		List<Slot> slots = container.inventorySlots;
+		this.stacks = new ItemStack[slots.size()];
+		this.counts = new int[slots.size()];
+		for (int slotNumber = 0; slotNumber < slots.size(); slotNumber++) {
+			ItemStack stack = slots.get(slotNumber).getStack();
+			this.stacks[slotNumber] = stack;
+			this.counts[slotNumber] = stack.getCount();
+			if (!stack.isEmpty()) {
+				this.items.add(stack.getItem());
+				String uid = ingredientHelper.getUniqueId(stack, UidContext.Recipe);
+				this.slotNumbersByUid.computeIfAbsent(uid, k -> new ArrayList<>()).add(slotNumber);
+			}
+		}
+	}
+
+	private boolean isUpToDate(Container container) {
+		if (this.container.get() != container) {
+			return false;
+		}
+		List<Slot> slots = container.inventorySlots;
+		if (slots.size() != stacks.length) {
+			return false;
+		}
+		for (int slotNumber = 0; slotNumber < stacks.length; slotNumber++) {
+			ItemStack stack = slots.get(slotNumber).getStack();
+			if (stack != stacks[slotNumber] || stack.getCount() != counts[slotNumber]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the number of items in the slot when the snapshot was taken.
+	 */
+	public int getCount(int slotNumber) {
+		if (slotNumber < 0 || slotNumber >= counts.length || stacks[slotNumber].isEmpty()) {
+			return 0;
+		}
+		return counts[slotNumber];
+	}
+
+	/**
+	 * @return the numbers of the slots holding a stack equivalent to the given one, in ascending order.
+	 */
+	public List<Integer> getSlotNumbers(ItemStack stack) {
+		if (stack.isEmpty() || !items.contains(stack.getItem())) {
+			return Collections.emptyList();
+		}
+		String uid = ingredientHelper.getUniqueId(stack, UidContext.Recipe);
+		List<Integer> slotNumbers = slotNumbersByUid.get(uid);
+		return slotNumbers == null ? Collections.emptyList() : slotNumbers;
+	}
+}
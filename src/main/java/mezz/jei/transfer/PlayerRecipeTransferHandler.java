@@ -18,7 +18,6 @@ import mezz.jei.api.constants.VanillaRecipeCategoryUid;
 import mezz.jei.api.gui.IRecipeLayout;
 import mezz.jei.api.gui.ingredient.IGuiIngredient;
 import mezz.jei.api.gui.ingredient.IGuiItemStackGroup;
-import mezz.jei.api.helpers.IStackHelper;
 import mezz.jei.api.recipe.transfer.IRecipeTransferError;
 import mezz.jei.api.recipe.transfer.IRecipeTransferHandler;
 import mezz.jei.api.recipe.transfer.IRecipeTransferHandlerHelper;
@@ -34,12 +33,10 @@ import org.apache.logging.log4j.Logger;
 public class PlayerRecipeTransferHandler implements IRecipeTransferHandler<PlayerContainer> {
 	private static final Logger LOGGER = LogManager.getLogger();
 
-	private final IStackHelper stackHelper;
 	private final IRecipeTransferHandlerHelper handlerHelper;
 	private final IRecipeTransferInfo<PlayerContainer> transferHelper;
 
-	public PlayerRecipeTransferHandler(IStackHelper stackhelper, IRecipeTransferHandlerHelper handlerHelper) {
-		this.stackHelper = stackhelper;
+	public PlayerRecipeTransferHandler(IRecipeTransferHandlerHelper handlerHelper) {
 		this.handlerHelper = handlerHelper;
 		this.transferHelper = new BasicRecipeTransferInfo<>(PlayerContainer.class, VanillaRecipeCategoryUid.CRAFTING, 1, 4, 9, 36);
 	}
@@ -110,7 +107,8 @@ public class PlayerRecipeTransferHandler implements IRecipeTransferHandler<Playe
 			}
 		}
 
-		Map<Integer, ItemStack> availableItemStacks = new HashMap<>();
+		ContainerSnapshot snapshot = ContainerSnapshot.get(container);
+		List<Integer> availableSlotNumbers = new ArrayList<>();
 		int filledCraftSlotCount = 0;
 		int emptySlotCount = 0;
 
@@ -122,18 +120,19 @@ public class PlayerRecipeTransferHandler implements IRecipeTransferHandler<Playe
 					return handlerHelper.createInternalError();
 				}
 				filledCraftSlotCount++;
-				availableItemStacks.put(slot.slotNumber, stack.copy());
+				availableSlotNumbers.add(slot.slotNumber);
 			}
 		}
 
 		for (Slot slot : inventorySlots.values()) {
 			final ItemStack stack = slot.getStack();
 			if (!stack.isEmpty()) {
-				availableItemStacks.put(slot.slotNumber, stack.copy());
+				availableSlotNumbers.add(slot.slotNumber);
 			} else {
 				emptySlotCount++;
 			}
 		}
+		Collections.sort(availableSlotNumbers);
 
 		// check if we have enough inventory space to shuffle items around to their final locations
 		if (filledCraftSlotCount - inputCount > emptySlotCount) {
@@ -141,11 +140,11 @@ public class PlayerRecipeTransferHandler implements IRecipeTransferHandler<Playe
 			return handlerHelper.createUserErrorWithTooltip(message);
 		}
 
-		RecipeTransferUtil.MatchingItemsResult matchingItemsResult = RecipeTransferUtil.getMatchingItems(stackHelper, availableItemStacks, playerInvItemStackGroup.getGuiIngredients());
+		RecipeTransferUtil.MatchingItemsResult matchingItemsResult = RecipeTransferUtil.getMatchingItems(snapshot, availableSlotNumbers, playerInvItemStackGroup.getGuiIngredients());
 
 		if (matchingItemsResult.missingItems.size() > 0) {
 			String message = Translator.translateToLocal("jei.tooltip.error.recipe.transfer.missing");
-			matchingItemsResult = RecipeTransferUtil.getMatchingItems(stackHelper, availableItemStacks, itemStackGroup.getGuiIngredients());
+			matchingItemsResult = RecipeTransferUtil.getMatchingItems(snapshot, availableSlotNumbers, itemStackGroup.getGuiIngredients());
 			return handlerHelper.createUserErrorForSlots(message, matchingItemsResult.missingItems);
 		}
 
@@ -3,27 +3,22 @@ package mezz.jei.transfer;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
-import mezz.jei.api.ingredients.subtypes.UidContext;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.inventory.container.Container;
 import net.minecraft.item.ItemStack;
 
 import mezz.jei.Internal;
 import mezz.jei.api.gui.ingredient.IGuiIngredient;
-import mezz.jei.api.helpers.IStackHelper;
 import mezz.jei.api.recipe.transfer.IRecipeTransferError;
 import mezz.jei.api.recipe.transfer.IRecipeTransferHandler;
 import mezz.jei.gui.recipes.RecipeLayout;
 import mezz.jei.recipes.RecipeTransferManager;
 import mezz.jei.runtime.JeiRuntime;
-import mezz.jei.util.ItemStackMatchable;
-import mezz.jei.util.MatchingIterable;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -72,12 +67,23 @@ public final class RecipeTransferUtil {
 	}
 
 	/**
-	 * Returns a list of items in slots that complete the recipe defined by requiredStacksList.
-	 * Returns a result that contains missingItems if there are not enough items in availableItemStacks.
+	 * Returns a list of items in slots that complete the recipe defined by ingredientsMap.
+	 * Returns a result that contains missingItems if there are not enough items in the available slots.
+	 *
+	 * @param snapshot             the contents of the container
+	 * @param availableSlotNumbers the container slots that items may be taken from, in the order they should be used
 	 */
-	public static MatchingItemsResult getMatchingItems(IStackHelper stackhelper, Map<Integer, ItemStack> availableItemStacks, Map<Integer, ? extends IGuiIngredient<ItemStack>> ingredientsMap) {
+	public static MatchingItemsResult getMatchingItems(ContainerSnapshot snapshot, List<Integer> availableSlotNumbers, Map<Integer, ? extends IGuiIngredient<ItemStack>> ingredientsMap) {
 		MatchingItemsResult matchingItemResult = new MatchingItemsResult();
 
+		Map<Integer, Integer> remainingCounts = new HashMap<>(availableSlotNumbers.size());
+		for (Integer slotNumber : availableSlotNumbers) {
+			int count = snapshot.getCount(slotNumber);
+			if (count > 0) {
+				remainingCounts.put(slotNumber, count);
+			}
+		}
+
 		int recipeSlotNumber = -1;
 		SortedSet<Integer> keys = new TreeSet<>(ingredientsMap.keySet());
 		for (Integer key : keys) {
@@ -92,14 +98,15 @@ public final class RecipeTransferUtil {
 				continue;
 			}
 
-			Integer matching = containsAnyStackIndexed(stackhelper, availableItemStacks, requiredStacks);
+			Integer matching = getMatchingSlot(snapshot, remainingCounts, requiredStacks);
 			if (matching == null) {
 				matchingItemResult.missingItems.add(key);
 			} else {
-				ItemStack matchingStack = availableItemStacks.get(matching);
-				matchingStack.shrink(1);
-				if (matchingStack.getCount() == 0) {
-					availableItemStacks.remove(matching);
+				int remainingCount = remainingCounts.get(matching) - 1;
+				if (remainingCount == 0) {
+					remainingCounts.remove(matching);
+				} else {
+					remainingCounts.put(matching, remainingCount);
 				}
 				matchingItemResult.matchingItems.put(recipeSlotNumber, matching);
 			}
@@ -108,63 +115,21 @@ public final class RecipeTransferUtil {
 		return matchingItemResult;
 	}
 
+	/**
+	 * Returns the first slot with items remaining that is equivalent to any of the required stacks.
+	 */
 	@Nullable
-	public static Integer containsAnyStackIndexed(IStackHelper stackhelper, Map<Integer, ItemStack> stacks, Iterable<ItemStack> contains) {
-		MatchingIndexed matchingStacks = new MatchingIndexed(stacks);
-		MatchingIterable matchingContains = new MatchingIterable(contains);
-		return containsStackMatchable(stackhelper, matchingStacks, matchingContains);
-	}
-
-	/* Returns an ItemStack from "stacks" if it isEquivalent to an ItemStack from "contains" */
-	@Nullable
-	public static <R, T> R containsStackMatchable(IStackHelper stackhelper, Iterable<ItemStackMatchable<R>> stacks, Iterable<ItemStackMatchable<T>> contains) {
-		for (ItemStackMatchable<?> containStack : contains) {
-			R matchingStack = containsStack(stackhelper, stacks, containStack);
-			if (matchingStack != null) {
-				return matchingStack;
+	private static Integer getMatchingSlot(ContainerSnapshot snapshot, Map<Integer, Integer> remainingCounts, List<ItemStack> requiredStacks) {
+		for (ItemStack requiredStack : requiredStacks) {
+			if (requiredStack == null) {
+				continue;
 			}
-		}
-
-		return null;
-	}
-
-	/* Returns an ItemStack from "stacks" if it isEquivalent to "contains" */
-	@Nullable
-	public static <R> R containsStack(IStackHelper stackHelper, Iterable<ItemStackMatchable<R>> stacks, ItemStackMatchable<?> contains) {
-		for (ItemStackMatchable<R> stack : stacks) {
-			if (stackHelper.isEquivalent(contains.getStack(), stack.getStack(), UidContext.Recipe)) {
-				return stack.getResult();
+			for (Integer slotNumber : snapshot.getSlotNumbers(requiredStack)) {
+				if (remainingCounts.containsKey(slotNumber)) {
+					return slotNumber;
+				}
 			}
 		}
 		return null;
 	}
-
-	private static class MatchingIndexed implements Iterable<ItemStackMatchable<Integer>> {
-		private final Map<Integer, ItemStack> map;
-
-		public MatchingIndexed(Map<Integer, ItemStack> map) {
-			this.map = map;
-		}
-
-		@Override
-		public Iterator<ItemStackMatchable<Integer>> iterator() {
-			return new MatchingIterable.DelegateIterator<Map.Entry<Integer, ItemStack>, ItemStackMatchable<Integer>>(map.entrySet().iterator()) {
-				@Override
-				public ItemStackMatchable<Integer> next() {
-					final Map.Entry<Integer, ItemStack> entry = delegate.next();
-					return new ItemStackMatchable<Integer>() {
-						@Override
-						public ItemStack getStack() {
-							return entry.getValue();
-						}
-
-						@Override
-						public Integer getResult() {
-							return entry.getKey();
-						}
-					};
-				}
-			};
-		}
-	}
 }
@@ -0,0 +1,138 @@
+package mezz.jei.transfer;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.inventory.container.Container;
+import net.minecraft.inventory.container.Slot;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.CompoundNBT;
+
+/**
+ * A one-shot index of the takeable stacks in a container, grouped by item and NBT.
+ * Built once per transfer so that the server does not have to scan every slot for every item it needs.
+ */
+final class TransferInventoryIndex {
+	private final Map<Key, Entry> entries = new HashMap<>();
+
+	/**
+	 * Index the given slots, in order.
+	 * Earlier slots are drained first, so pass the crafting slots before the inventory slots.
+	 */
+	public TransferInventoryIndex(PlayerEntity player, Container container, List<Integer> craftingSlots, List<Integer> inventorySlots) {
+		Set<Integer> indexedSlots = new HashSet<>();
+		addSlots(player, container, craftingSlots, indexedSlots);
+		addSlots(player, container, inventorySlots, indexedSlots);
+	}
+
+	private void addSlots(PlayerEntity player, Container container, List<Integer> slotNumbers, Set<Integer> indexedSlots) {
+		for (Integer slotNumber : slotNumbers) {
+			if (slotNumber >= 0 && slotNumber < container.inventorySlots.size() && indexedSlots.add(slotNumber)) {
+				Slot slot = container.getSlot(slotNumber);
+				ItemStack slotStack = slot.getStack();
+				if (!slotStack.isEmpty() && slot.canTakeStack(player)) {
+					Key key = new Key(slotStack);
+					Entry entry = entries.get(key);
+					if (entry == null) {
+						entry = new Entry();
+						// the slot's stack will change when items are removed, so the map key needs its own copy
+						entries.put(new Key(slotStack.copy()), entry);
+					}
+					entry.slots.add(slot);
+					entry.count += slotStack.getCount();
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the total number of items matching the given stack in the indexed slots.
+	 */
+	public int getCount(ItemStack stack) {
+		Entry entry = entries.get(new Key(stack));
+		return entry == null ? 0 : entry.count;
+	}
+
+	/**
+	 * Remove up to the given number of items matching the given stack from the indexed slots, in slot order.
+	 *
+	 * @return the removed items as a single stack, or {@link ItemStack#EMPTY} if nothing could be removed.
+	 */
+	public ItemStack remove(ItemStack stack, int amount) {
+		Entry entry = entries.get(new Key(stack));
+		if (entry == null || amount <= 0) {
+			return ItemStack.EMPTY;
+		}
+		ItemStack removed = ItemStack.EMPTY;
+		for (Slot slot : entry.slots) {
+			if (amount <= 0) {
+				break;
+			}
+			ItemStack slotStack = slot.getStack();
+			if (slotStack.isEmpty()) {
+				continue;
+			}
+			ItemStack removedFromSlot = slot.decrStackSize(Math.min(amount, slotStack.getCount()));
+			if (!removedFromSlot.isEmpty()) {
+				amount -= removedFromSlot.getCount();
+				entry.count -= removedFromSlot.getCount();
+				if (removed.isEmpty()) {
+					removed = removedFromSlot;
+				} else {
+					removed.grow(removedFromSlot.getCount());
+				}
+			}
+		}
+		return removed;
+	}
+
+	private static final class Entry {
+		private final List<Slot> slots = new ArrayList<>();
+		private int count;
+	}
+
+	/**
+	 * Matches stacks the same way as {@link ItemStack#areItemsEqual} and {@link ItemStack#areItemStackTagsEqual}.
+	 */
+	private static final class Key {
+		private final ItemStack stack;
+		private final Item item;
+		@Nullable
+		private final CompoundNBT tag;
+		private final int hashCode;
+
+		public Key(ItemStack stack) {
+			this.stack = stack;
+			this.item = stack.getItem();
+			this.tag = stack.getTag();
+			this.hashCode = 31 * item.hashCode() + Objects.hashCode(tag);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return hashCode == other.hashCode &&
+				item == other.item &&
+				ItemStack.areItemStackTagsEqual(stack, other.stack);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+}
@@ -4,6 +4,9 @@ import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.minecraft.util.Util;
 import net.minecraftforge.items.ItemHandlerHelper;
@@ -39,6 +42,11 @@ import org.apache.logging.log4j.Logger;
  */
 public final class CommandUtilServer {
 	private static final Logger LOGGER = LogManager.getLogger();
+	/**
+	 * Finding the give command is too expensive to do for every packet, so the result is cached per player
+	 * until the player's op level changes. Creative mode players always have permission.
+	 */
+	private static final Map<UUID, CachedPermission> PERMISSION_CACHE = new ConcurrentHashMap<>();
 
 	private CommandUtilServer() {
 	}
@@ -73,6 +81,26 @@ public final class CommandUtilServer {
 		if (sender.isCreative()) {
 			return true;
 		}
+		MinecraftServer minecraftServer = sender.getServer();
+		if (minecraftServer == null) {
+			return false;
+		}
+		int opLevel = minecraftServer.getPermissionLevel(sender.getGameProfile());
+		UUID playerId = sender.getUniqueID();
+		CachedPermission cachedPermission = PERMISSION_CACHE.get(playerId);
+		if (cachedPermission == null || cachedPermission.opLevel != opLevel) {
+			boolean hasPermission = computeHasPermission(sender);
+			cachedPermission = new CachedPermission(opLevel, hasPermission);
+			PERMISSION_CACHE.put(playerId, cachedPermission);
+		}
+		return cachedPermission.hasPermission;
+	}
+
+	public static void onPlayerLoggedOut(PlayerEntity player) {
+		PERMISSION_CACHE.remove(player.getUniqueID());
+	}
+
+	private static boolean computeHasPermission(PlayerEntity sender) {
 		CommandNode<CommandSource> giveCommand = getGiveCommand(sender);
 		CommandSource commandSource = sender.getCommandSource();
 		if (giveCommand != null) {
@@ -181,6 +209,16 @@ public final class CommandUtilServer {
 		commandSource.sendFeedback(message, true);
 	}
 
+	private static class CachedPermission {
+		private final int opLevel;
+		private final boolean hasPermission;
+
+		public CachedPermission(int opLevel, boolean hasPermission) {
+			this.opLevel = opLevel;
+			this.hasPermission = hasPermission;
+		}
+	}
+
 	@Nullable
 	private static CommandNode<CommandSource> getGiveCommand(PlayerEntity sender) {
 		MinecraftServer minecraftServer = sender.getServer();
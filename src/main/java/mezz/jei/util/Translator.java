@@ -1,5 +1,7 @@
 package mezz.jei.util;
 
+import java.text.CollationKey;
+import java.text.Collator;
 import java.util.Locale;
 
 import net.minecraft.client.Minecraft;
@@ -8,6 +10,11 @@ import net.minecraft.client.resources.Language;
 import net.minecraft.client.resources.LanguageManager;
 
 public final class Translator {
+	/**
+	 * Collators are not thread safe, and element infos are created on many threads.
+	 */
+	private static final ThreadLocal<LocaleCollator> COLLATOR = new ThreadLocal<>();
+
 	private Translator() {
 	}
 
@@ -23,6 +30,19 @@ public final class Translator {
 		return string.toLowerCase(getLocale());
 	}
 
+	/**
+	 * @return a key that sorts the string in the order of the current language.
+	 */
+	public static CollationKey getCollationKey(String string) {
+		Locale locale = getLocale();
+		LocaleCollator localeCollator = COLLATOR.get();
+		if (localeCollator == null || !localeCollator.locale.equals(locale)) {
+			localeCollator = new LocaleCollator(locale);
+			COLLATOR.set(localeCollator);
+		}
+		return localeCollator.collator.getCollationKey(string);
+	}
+
 	@SuppressWarnings("ConstantConditions")
 	private static Locale getLocale() {
 		Minecraft minecraft = Minecraft.getInstance();
@@ -37,4 +57,14 @@ public final class Translator {
 		}
 		return Locale.getDefault();
 	}
+
+	private static final class LocaleCollator {
+		private final Locale locale;
+		private final Collator collator;
+
+		public LocaleCollator(Locale locale) {
+			this.locale = locale;
+			this.collator = Collator.getInstance(locale);
+		}
+	}
 }
@@ -0,0 +1,137 @@
+package mezz.jei.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import mezz.jei.config.ConfigFileWriter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ConfigFileWriterTest {
+	@TempDir
+	public Path tempDir;
+
+	@Test
+	public void testWriteReplacesFile() throws IOException {
+		File file = tempDir.resolve("test.cfg").toFile();
+		ConfigFileWriter.writeAtomically(file, writer -> writer.write("old"));
+		ConfigFileWriter.writeAtomically(file, writer -> writer.write("new"));
+
+		Assertions.assertEquals("new", read(file));
+		assertNoTempFile(file);
+	}
+
+	@Test
+	public void testFailedWriteKeepsOldFile() throws IOException {
+		File file = tempDir.resolve("test.cfg").toFile();
+		ConfigFileWriter.writeAtomically(file, writer -> writer.write("old"));
+
+		Assertions.assertThrows(IOException.class, () ->
+			ConfigFileWriter.writeAtomically(file, writer -> {
+				writer.write("partial");
+				writer.flush();
+				throw new IOException("crashed while writing");
+			})
+		);
+		Assertions.assertThrows(IllegalStateException.class, () ->
+			ConfigFileWriter.writeAtomically(file, writer -> {
+				writer.write("partial");
+				throw new IllegalStateException("crashed while writing");
+			})
+		);
+
+		Assertions.assertEquals("old", read(file));
+		assertNoTempFile(file);
+	}
+
+	@Test
+	public void testFailedWriteDoesNotCreateFile() {
+		File file = tempDir.resolve("test.cfg").toFile();
+
+		Assertions.assertThrows(IOException.class, () ->
+			ConfigFileWriter.writeAtomically(file, writer -> {
+				writer.write("partial");
+				throw new IOException("crashed while writing");
+			})
+		);
+
+		Assertions.assertFalse(file.exists());
+		assertNoTempFile(file);
+	}
+
+	@Test
+	public void testLeftoverTempFileIsReplaced() throws IOException {
+		File file = tempDir.resolve("test.cfg").toFile();
+		File tempFile = new File(file.getPath() + ".tmp");
+		// left behind by a crash before the move
+		Files.write(tempFile.toPath(), "partial contents that are much longer".getBytes(Charset.defaultCharset()));
+
+		ConfigFileWriter.writeAtomically(file, writer -> writer.write("new"));
+
+		Assertions.assertEquals("new", read(file));
+		assertNoTempFile(file);
+	}
+
+	@Test
+	public void testPendingWritesAreCombined() throws IOException {
+		File file = tempDir.resolve("test.cfg").toFile();
+		ConfigFileWriter configFileWriter = new ConfigFileWriter("JEI Config IO Test");
+		AtomicInteger writes = new AtomicInteger();
+		for (int i = 0; i < 10; i++) {
+			String contents = "contents " + i;
+			configFileWriter.write(file, writer -> {
+				writes.incrementAndGet();
+				writer.write(contents);
+			}, 60_000);
+		}
+		Assertions.assertFalse(file.exists());
+
+		// flushing does not wait for the delay
+		configFileWriter.flush();
+
+		Assertions.assertEquals(1, writes.get());
+		Assertions.assertEquals("contents 9", read(file));
+		assertNoTempFile(file);
+	}
+
+	@Test
+	public void testWritesAreOrderedWithOtherTasks() throws IOException {
+		File file = tempDir.resolve("test.cfg").toFile();
+		ConfigFileWriter configFileWriter = new ConfigFileWriter("JEI Config IO Test");
+		StringBuilder seen = new StringBuilder();
+		configFileWriter.write(file, writer -> writer.write("first"));
+		configFileWriter.execute(() -> seen.append(read(file)));
+		configFileWriter.flush();
+
+		Assertions.assertEquals("first", seen.toString());
+	}
+
+	@Test
+	public void testWriteAfterFlush() throws IOException {
+		File file = tempDir.resolve("test.cfg").toFile();
+		ConfigFileWriter configFileWriter = new ConfigFileWriter("JEI Config IO Test");
+		configFileWriter.flush();
+
+		configFileWriter.write(file, writer -> writer.write("after shutdown"), 60_000);
+
+		Assertions.assertEquals("after shutdown", read(file));
+	}
+
+	private static String read(File file) {
+		try {
+			return new String(Files.readAllBytes(file.toPath()), Charset.defaultCharset());
+		} catch (IOException e) {
+			throw new AssertionError("Failed to read " + file, e);
+		}
+	}
+
+	private static void assertNoTempFile(File file) {
+		File tempFile = new File(file.getPath() + ".tmp");
+		Assertions.assertFalse(tempFile.exists(), "temp file was left behind");
+	}
+}
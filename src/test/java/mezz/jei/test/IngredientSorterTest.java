@@ -0,0 +1,289 @@
+package mezz.jei.test;
+
+import mezz.jei.api.helpers.IModIdHelper;
+import mezz.jei.api.runtime.IIngredientManager;
+import mezz.jei.config.ClientConfig;
+import mezz.jei.config.EditModeConfig;
+import mezz.jei.config.IClientConfig;
+import mezz.jei.config.IIngredientFilterConfig;
+import mezz.jei.config.sorting.IngredientTypeSortingConfig;
+import mezz.jei.config.sorting.ModNameSortingConfig;
+import mezz.jei.gui.ingredients.IIngredientListElement;
+import mezz.jei.ingredients.IIngredientListElementInfo;
+import mezz.jei.ingredients.IIngredientSorter;
+import mezz.jei.ingredients.IngredientBlacklistInternal;
+import mezz.jei.ingredients.IngredientFilter;
+import mezz.jei.ingredients.IngredientListElement;
+import mezz.jei.ingredients.IngredientListElementFactory;
+import mezz.jei.ingredients.IngredientManager;
+import mezz.jei.ingredients.IngredientSortStage;
+import mezz.jei.ingredients.IngredientSorter;
+import mezz.jei.ingredients.ModIngredientRegistration;
+import mezz.jei.ingredients.RegisteredIngredient;
+import mezz.jei.ingredients.SubtypeManager;
+import mezz.jei.load.registration.SubtypeRegistration;
+import mezz.jei.test.lib.TestClientConfig;
+import mezz.jei.test.lib.TestIngredient;
+import mezz.jei.test.lib.TestIngredientFilterConfig;
+import mezz.jei.test.lib.TestModIdHelper;
+import mezz.jei.test.lib.TestPlugin;
+import net.minecraft.util.NonNullList;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * {@link IngredientSorter#sort} packs the integer sort stages into one key per element,
+ * it must give the same order as sorting with {@link IngredientSorter#getComparator}.
+ */
+public class IngredientSorterTest {
+	private static final String KNOWN_MOD_NAME = new TestModIdHelper().getModNameForModId("JEI Test Mod");
+	private static final String UNKNOWN_MOD_NAME = "Unknown Mod";
+
+	@TempDir
+	public Path tempDir;
+	@Nullable
+	private IngredientManager ingredientManager;
+	@Nullable
+	private IngredientFilter ingredientFilter;
+
+	@BeforeEach
+	public void setup() throws IOException {
+		TestPlugin testPlugin = new TestPlugin();
+
+		SubtypeRegistration subtypeRegistration = new SubtypeRegistration();
+		testPlugin.registerItemSubtypes(subtypeRegistration);
+		SubtypeManager subtypeManager = new SubtypeManager(subtypeRegistration);
+
+		ModIngredientRegistration modIngredientRegistration = new ModIngredientRegistration(subtypeManager);
+		testPlugin.registerIngredients(modIngredientRegistration);
+
+		IngredientBlacklistInternal blacklist = new IngredientBlacklistInternal();
+		IModIdHelper modIdHelper = new TestModIdHelper();
+		List<RegisteredIngredient<?>> registeredIngredients = modIngredientRegistration.getRegisteredIngredients();
+		this.ingredientManager = new IngredientManager(modIdHelper, blacklist, registeredIngredients, true);
+
+		NonNullList<IIngredientListElement<?>> baseList = IngredientListElementFactory.createBaseList(ingredientManager);
+		IClientConfig clientConfig = new TestClientConfig(false);
+		TestIngredientFilterConfig ingredientFilterConfig = new TestIngredientFilterConfig();
+		IIngredientSorter ingredientListSorter = (a, b) -> Comparator.comparing(IIngredientListElementInfo::getModNameForSorting);
+		this.ingredientFilter = new IngredientFilter(blacklist, clientConfig, ingredientFilterConfig, new EditModeConfig(null), ingredientManager, ingredientListSorter, baseList, modIdHelper);
+
+		// written in the order the sorting configs would save them, so that they do not save anything in the background
+		write("modNameSortOrder.ini", KNOWN_MOD_NAME);
+		write("ingredientTypeSortOrder.ini", IngredientTypeSortingConfig.getIngredientType(TestIngredient.class));
+	}
+
+	@Test
+	public void testEmptyList() {
+		assertSameOrder(ClientConfig.ingredientSorterStagesDefault, Collections.emptyList());
+	}
+
+	@Test
+	public void testSingleElement() {
+		List<IIngredientListElementInfo<?>> elements = Collections.singletonList(
+			new TestElementInfo("single", KNOWN_MOD_NAME, new TestIngredient(0), 5)
+		);
+		assertSameOrder(ClientConfig.ingredientSorterStagesDefault, elements);
+	}
+
+	@Test
+	public void testUnknownRanks() {
+		List<IIngredientListElementInfo<?>> elements = Arrays.asList(
+			new TestElementInfo("a", UNKNOWN_MOD_NAME, new TestIngredient(0), 3),
+			new TestElementInfo("b", KNOWN_MOD_NAME, "unknown type", 2),
+			new TestElementInfo("c", KNOWN_MOD_NAME, new TestIngredient(1), Integer.MAX_VALUE),
+			new TestElementInfo("d", KNOWN_MOD_NAME, new TestIngredient(2), -7),
+			new TestElementInfo("e", UNKNOWN_MOD_NAME, "unknown type", Integer.MAX_VALUE),
+			new TestElementInfo("f", KNOWN_MOD_NAME, new TestIngredient(3), 1)
+		);
+		assertSameOrder(ClientConfig.ingredientSorterStagesDefault, elements);
+	}
+
+	@Test
+	public void testAllRanksUnknown() {
+		List<IIngredientListElementInfo<?>> elements = Arrays.asList(
+			new TestElementInfo("b", UNKNOWN_MOD_NAME, "unknown type", Integer.MAX_VALUE),
+			new TestElementInfo("a", UNKNOWN_MOD_NAME, "unknown type", Integer.MAX_VALUE),
+			new TestElementInfo("c", UNKNOWN_MOD_NAME, "unknown type", Integer.MAX_VALUE)
+		);
+		assertSameOrder(ClientConfig.ingredientSorterStagesDefault, elements);
+		assertSameOrder(Arrays.asList(IngredientSortStage.MOD_NAME, IngredientSortStage.ALPHABETICAL), elements);
+	}
+
+	@Test
+	public void testEqualKeysUseAlphabeticalStage() {
+		List<IIngredientListElementInfo<?>> elements = Arrays.asList(
+			new TestElementInfo("delta", KNOWN_MOD_NAME, new TestIngredient(0), 1),
+			new TestElementInfo("Alpha", KNOWN_MOD_NAME, new TestIngredient(1), 1),
+			new TestElementInfo("charlie", UNKNOWN_MOD_NAME, new TestIngredient(2), 0),
+			new TestElementInfo("bravo", KNOWN_MOD_NAME, new TestIngredient(3), 1),
+			new TestElementInfo("alpha", KNOWN_MOD_NAME, new TestIngredient(4), 0)
+		);
+		assertSameOrder(Arrays.asList(IngredientSortStage.MOD_NAME, IngredientSortStage.ALPHABETICAL, IngredientSortStage.CREATIVE_MENU), elements);
+		assertSameOrder(Arrays.asList(IngredientSortStage.MOD_NAME, IngredientSortStage.CREATIVE_MENU, IngredientSortStage.ALPHABETICAL), elements);
+		assertSameOrder(Collections.singletonList(IngredientSortStage.ALPHABETICAL), elements);
+	}
+
+	@Test
+	public void testStagesThatDoNotFitInKey() {
+		// two full range creative menu stages need more than 63 bits, the second one has to be compared instead
+		List<IngredientSortStage> stages = Arrays.asList(
+			IngredientSortStage.CREATIVE_MENU,
+			IngredientSortStage.CREATIVE_MENU,
+			IngredientSortStage.MOD_NAME,
+			IngredientSortStage.ALPHABETICAL
+		);
+		List<IIngredientListElementInfo<?>> elements = Arrays.asList(
+			new TestElementInfo("b", KNOWN_MOD_NAME, new TestIngredient(0), Integer.MIN_VALUE),
+			new TestElementInfo("a", UNKNOWN_MOD_NAME, new TestIngredient(1), Integer.MAX_VALUE - 1),
+			new TestElementInfo("c", KNOWN_MOD_NAME, new TestIngredient(2), Integer.MAX_VALUE),
+			new TestElementInfo("a", KNOWN_MOD_NAME, new TestIngredient(3), Integer.MIN_VALUE),
+			new TestElementInfo("d", KNOWN_MOD_NAME, new TestIngredient(4), 0),
+			new TestElementInfo("a", KNOWN_MOD_NAME, new TestIngredient(5), Integer.MAX_VALUE - 1)
+		);
+		assertSameOrder(stages, elements);
+	}
+
+	@Test
+	public void testRandomElements() {
+		Random random = new Random(1234);
+		String[] modNames = {KNOWN_MOD_NAME, UNKNOWN_MOD_NAME};
+		String[] names = {"apple", "Banana", "cherry", "apple", "date"};
+		List<IIngredientListElementInfo<?>> elements = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			String name = names[random.nextInt(names.length)];
+			String modName = modNames[random.nextInt(modNames.length)];
+			Object ingredient = random.nextInt(4) == 0 ? "unknown type" : new TestIngredient(i);
+			int orderIndex = random.nextInt(10) == 0 ? Integer.MAX_VALUE : random.nextInt(20) - 5;
+			elements.add(new TestElementInfo(name, modName, ingredient, orderIndex));
+		}
+		assertSameOrder(ClientConfig.ingredientSorterStagesDefault, elements);
+		assertSameOrder(Arrays.asList(IngredientSortStage.INGREDIENT_TYPE, IngredientSortStage.ALPHABETICAL, IngredientSortStage.MOD_NAME), elements);
+		assertSameOrder(Arrays.asList(IngredientSortStage.CREATIVE_MENU, IngredientSortStage.MOD_NAME, IngredientSortStage.INGREDIENT_TYPE, IngredientSortStage.ALPHABETICAL), elements);
+	}
+
+	private void assertSameOrder(List<IngredientSortStage> stages, List<IIngredientListElementInfo<?>> elements) {
+		Assertions.assertNotNull(ingredientManager);
+		Assertions.assertNotNull(ingredientFilter);
+
+		IngredientSorter sorter = createSorter(stages);
+		List<IIngredientListElementInfo<?>> expected = new ArrayList<>(elements);
+		expected.sort(sorter.getComparator(ingredientFilter, ingredientManager));
+
+		List<IIngredientListElementInfo<?>> sorted = sorter.sort(ingredientFilter, ingredientManager, elements);
+		Assertions.assertEquals(expected, sorted, "sorted with stages " + stages);
+	}
+
+	private IngredientSorter createSorter(List<IngredientSortStage> stages) {
+		IClientConfig clientConfig = new TestClientConfig(false) {
+			@Override
+			public List<IngredientSortStage> getIngredientSorterStages() {
+				return stages;
+			}
+		};
+		ModNameSortingConfig modNameSortingConfig = new ModNameSortingConfig(tempDir.resolve("modNameSortOrder.ini").toFile());
+		IngredientTypeSortingConfig ingredientTypeSortingConfig = new IngredientTypeSortingConfig(tempDir.resolve("ingredientTypeSortOrder.ini").toFile());
+		return new IngredientSorter(clientConfig, modNameSortingConfig, ingredientTypeSortingConfig);
+	}
+
+	private void write(String fileName, String line) throws IOException {
+		File file = tempDir.resolve(fileName).toFile();
+		Files.write(file.toPath(), (line + "\n").getBytes(Charset.defaultCharset()));
+	}
+
+	private static class TestElementInfo implements IIngredientListElementInfo<Object> {
+		private static final Collator COLLATOR = Collator.getInstance(Locale.ENGLISH);
+
+		private final String name;
+		private final CollationKey nameSortKey;
+		private final String modName;
+		private final IIngredientListElement<Object> element;
+
+		public TestElementInfo(String name, String modName, Object ingredient, int orderIndex) {
+			this.name = name;
+			this.nameSortKey = COLLATOR.getCollationKey(name);
+			this.modName = modName;
+			this.element = new IngredientListElement<>(ingredient, orderIndex);
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+
+		@Override
+		public CollationKey getNameSortKey() {
+			return nameSortKey;
+		}
+
+		@Override
+		public String getModNameForSorting() {
+			return modName;
+		}
+
+		@Override
+		public String getDisplayModId() {
+			return modName;
+		}
+
+		@Override
+		public Set<String> getModNameStrings() {
+			return Collections.singleton(modName);
+		}
+
+		@Override
+		public List<String> getTooltipStrings(IIngredientFilterConfig config, IIngredientManager ingredientManager) {
+			return Collections.emptyList();
+		}
+
+		@Override
+		public Collection<String> getTagStrings(IIngredientManager ingredientManager) {
+			return Collections.emptyList();
+		}
+
+		@Override
+		public Collection<String> getCreativeTabsStrings(IIngredientManager ingredientManager) {
+			return Collections.emptyList();
+		}
+
+		@Override
+		public Collection<String> getColorStrings(IIngredientManager ingredientManager) {
+			return Collections.emptyList();
+		}
+
+		@Override
+		public String getResourceId() {
+			return name;
+		}
+
+		@Override
+		public IIngredientListElement<Object> getElement() {
+			return element;
+		}
+
+		@Override
+		public String toString() {
+			return name + " " + modName + " " + element.getIngredient() + " " + element.getOrderIndex();
+		}
+	}
+}
@@ -29,6 +29,16 @@ public class TestClientConfig implements IClientConfig {
 		return lowMemorySlowSearchEnabled;
 	}
 
+	@Override
+	public boolean isCacheWarmUpEnabled() {
+		return false;
+	}
+
+	@Override
+	public int getMaxRecipeGuiHistorySize() {
+		return 100;
+	}
+
 	@Override
 	public GiveMode getGiveMode() {
 		return GiveMode.INVENTORY;